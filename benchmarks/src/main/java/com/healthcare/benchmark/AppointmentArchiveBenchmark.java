@@ -0,0 +1,197 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.ArchivedAppointmentRepository;
+import com.healthcare.service.AppointmentArchiver;
+import com.healthcare.service.AppointmentIntervalIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of recent appointments as the number of old completed and cancelled appointments
+ * grows, with that history left in the appointments table or moved out by AppointmentArchiver.
+ * The recent data is the same in every run, so with archived=true the hot-path scores should
+ * stay where they are at history=0. historyDoctorWeek reads an old week, from the archive when
+ * it has been moved there, to show what a range that reaches back costs.
+ *
+ * Same database options as AppointmentRepositoryBenchmark; a large history needs heap, e.g.
+ * -jvmArgs -Xmx4g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentArchiveBenchmark {
+
+    // History sits years before the recent appointments, well past app.archive.min-age-days
+    private static final int HISTORY_YEARS_BACK = 12;
+
+    @Param({"jdbc:h2:mem:archive"})
+    private String url;
+
+    @Param({"sa"})
+    private String username;
+
+    @Param({""})
+    private String password;
+
+    @Param({"20000"})
+    private int recent;
+
+    @Param({"0", "100000", "300000"})
+    private int history;
+
+    @Param({"false", "true"})
+    private boolean archived;
+
+    private int doctors;
+    private long recentDays;
+    private long historyDays;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentRepository appointmentRepository;
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    private AppointmentArchiver archiver;
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ArchiveConfig.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.datasource.driver-class-name=",
+                        "--spring.jpa.database-platform=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--app.archive.batch-size=5000",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.healthcare=WARN");
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        archivedAppointmentRepository = context.getBean(ArchivedAppointmentRepository.class);
+        archiver = context.getBean(AppointmentArchiver.class);
+
+        doctors = Math.max(5, recent / 500);
+        seed(context.getBean(JdbcTemplate.class), Math.max(10, recent / 10));
+        if (archived) {
+            archiver.archive();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Appointment> recentDay() {
+        LocalDateTime start = SampleData.FIRST_SLOT.toLocalDate().atStartOfDay().plusDays(next() % recentDays);
+        return appointmentRepository.findByAppointmentDateTimeBetween(start, start.plusDays(1));
+    }
+
+    @Benchmark
+    public List<Appointment> recentDoctorWeek() {
+        long n = next();
+        LocalDateTime start = SampleData.FIRST_SLOT.plusDays(n % Math.max(1, recentDays - 7));
+        return appointmentRepository.findByDoctorAndAppointmentDateTimeBetween(doctor(n % doctors + 1), start, start.plusDays(7));
+    }
+
+    // Dashboard reconcile
+    @Benchmark
+    public List<Object[]> statusCounts() {
+        return appointmentRepository.countGroupedByStatus();
+    }
+
+    // Interval index warm-up: every booking that is not cancelled, completed ones included
+    @Benchmark
+    public List<Object[]> activeSlots() {
+        return appointmentRepository.findActiveSlots();
+    }
+
+    // What AppointmentService does for a doctor's date range
+    @Benchmark
+    public int historyDoctorWeek() {
+        long n = next();
+        LocalDateTime start = historySlot(0).plusDays(n % Math.max(1, historyDays - 7));
+        Doctor doctor = doctor(n % doctors + 1);
+        int found = appointmentRepository.findByDoctorAndAppointmentDateTimeBetween(doctor, start, start.plusDays(7)).size();
+        if (archiver.reachesArchive(start)) {
+            found += archivedAppointmentRepository.findByDoctorAndAppointmentDateTimeBetween(doctor, start, start.plusDays(7)).size();
+        }
+        return found;
+    }
+
+    private long next() {
+        return counter++ * 7919;
+    }
+
+    private void seed(JdbcTemplate jdbc, int patients) {
+        SampleData.clearTables(jdbc);
+        SampleData.seedUsers(jdbc, doctors, patients);
+
+        // Recent appointments in every status, then the completed and cancelled history before them
+        Timestamp created = Timestamp.valueOf(SampleData.FIRST_SLOT);
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= recent; id++) {
+            rows.add(new Object[]{id, doctors + (id * 31) % patients + 1, id % doctors + 1,
+                    Timestamp.valueOf(SampleData.slot(id / doctors)), SampleData.status(id), "Routine checkup", created});
+        }
+        for (long i = 0; i < history; i++) {
+            long id = recent + 1 + i;
+            rows.add(new Object[]{id, doctors + (id * 31) % patients + 1, i % doctors + 1,
+                    Timestamp.valueOf(historySlot(i / doctors)), i % 3 == 0 ? "CANCELLED" : "COMPLETED",
+                    "Routine checkup", created});
+        }
+        SampleData.batch(jdbc, SampleData.INSERT_APPOINTMENT, rows);
+
+        recentDays = days(SampleData.FIRST_SLOT, SampleData.slot((long) recent / doctors));
+        historyDays = days(historySlot(0), historySlot((long) history / doctors));
+    }
+
+    private static LocalDateTime historySlot(long index) {
+        return SampleData.slot(index).minusYears(HISTORY_YEARS_BACK);
+    }
+
+    private static long days(LocalDateTime first, LocalDateTime last) {
+        return last.toLocalDate().toEpochDay() - first.toLocalDate().toEpochDay() + 1;
+    }
+
+    private static Doctor doctor(long id) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setVersion(0L);
+        return doctor;
+    }
+
+    // The JPA layer plus the archiver and the booking index it prunes
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class})
+    @EntityScan("com.healthcare.entity")
+    @EnableJpaRepositories("com.healthcare.repository")
+    @Import({AppointmentArchiver.class, AppointmentIntervalIndex.class})
+    static class ArchiveConfig {
+    }
+}
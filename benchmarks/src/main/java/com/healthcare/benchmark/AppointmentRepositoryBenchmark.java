@@ -0,0 +1,177 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.AppointmentRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appointment finders against a database seeded through JDBC with a realistic spread of
+ * patients, doctors and appointments. Runs on an in-memory H2 database by default; point
+ * it at a scratch PostgreSQL database (its tables are emptied first!) with
+ * -p url=jdbc:postgresql://localhost:5432/bench -p username=... -p password=...
+ *
+ * indexed=false drops the V2 lookup indexes after migrating, which shows what they buy; the
+ * foreign keys keep whatever index the database gives them on its own. indexed=true creates
+ * them again, so a scratch PostgreSQL database is not left without them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentRepositoryBenchmark {
+
+    @Param({"jdbc:h2:mem:bench"})
+    private String url;
+
+    @Param({"sa"})
+    private String username;
+
+    @Param({""})
+    private String password;
+
+    @Param({"50000"})
+    private int appointments;
+
+    @Param({"true", "false"})
+    private boolean indexed;
+
+    private int patients;
+    private int doctors;
+    private long days;
+
+    private ConfigurableApplicationContext context;
+    private AppointmentRepository appointmentRepository;
+    private long counter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RepositoryConfig.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.datasource.driver-class-name=",
+                        "--spring.jpa.database-platform=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.healthcare=WARN");
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+
+        patients = Math.max(10, appointments / 10);
+        doctors = Math.max(5, appointments / 500);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        SampleData.lookupIndexes(jdbc, indexed);
+        seed(jdbc);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Appointment> findByDoctor() {
+        return appointmentRepository.findByDoctor(doctor(next() % doctors + 1));
+    }
+
+    @Benchmark
+    public List<Appointment> findByPatient() {
+        return appointmentRepository.findByPatient(patient(doctors + next() % patients + 1));
+    }
+
+    @Benchmark
+    public List<Appointment> findByDoctorAndWeek() {
+        long n = next();
+        LocalDateTime start = SampleData.FIRST_SLOT.plusDays(n % Math.max(1, days - 7));
+        return appointmentRepository.findByDoctorAndAppointmentDateTimeBetween(
+                doctor(n % doctors + 1), start, start.plusDays(7));
+    }
+
+    @Benchmark
+    public List<Appointment> statusFirstPage() {
+        return appointmentRepository.findByStatusOrderByAppointmentDateTimeAscIdAsc(
+                SampleData.status(next()), Limit.of(51));
+    }
+
+    @Benchmark
+    public List<Appointment> keysetPageFromMiddle() {
+        long n = next() % appointments;
+        return appointmentRepository.findPageAfter(SampleData.slot(n / doctors), n, Limit.of(51));
+    }
+
+    @Benchmark
+    public List<Object[]> overlappingSlots() {
+        long n = next();
+        LocalDateTime start = SampleData.FIRST_SLOT.plusDays(n % days);
+        return appointmentRepository.findActiveSlotsOverlapping(doctor(n % doctors + 1).getId(),
+                start, start.plusHours(8), start.minusMinutes(30));
+    }
+
+    private long next() {
+        return counter++ * 7919;
+    }
+
+    private void seed(JdbcTemplate jdbc) {
+        SampleData.clearTables(jdbc);
+        SampleData.seedUsers(jdbc, doctors, patients);
+
+        // Each doctor fills consecutive half-hour slots, so no two bookings of a doctor overlap
+        Timestamp created = Timestamp.valueOf(SampleData.FIRST_SLOT);
+        List<Object[]> appointmentRows = new ArrayList<>();
+        for (long id = 1; id <= appointments; id++) {
+            long doctorId = id % doctors + 1;
+            long patientId = doctors + (id * 31) % patients + 1;
+            appointmentRows.add(new Object[]{id, patientId, doctorId, Timestamp.valueOf(SampleData.slot(id / doctors)),
+                    SampleData.status(id), "Routine checkup", created});
+        }
+        days = SampleData.slot((long) appointments / doctors).toLocalDate().toEpochDay()
+                - SampleData.FIRST_SLOT.toLocalDate().toEpochDay() + 1;
+        SampleData.batch(jdbc, SampleData.INSERT_APPOINTMENT, appointmentRows);
+    }
+
+    private static Doctor doctor(long id) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setVersion(0L);
+        return doctor;
+    }
+
+    private static Patient patient(long id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setVersion(0L);
+        return patient;
+    }
+
+    // Only the JPA layer: no web, security or the application's own services and data loader
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class})
+    @EntityScan("com.healthcare.entity")
+    @EnableJpaRepositories("com.healthcare.repository")
+    static class RepositoryConfig {
+    }
+}
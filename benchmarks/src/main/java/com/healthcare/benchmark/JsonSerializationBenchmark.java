@@ -0,0 +1,63 @@
+package com.healthcare.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization of entity lists, with the same ObjectMapper defaults Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Patient> patients;
+    private List<Doctor> doctors;
+    private List<Appointment> appointments;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        patients = new ArrayList<>();
+        doctors = new ArrayList<>();
+        appointments = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            patients.add(SampleData.patient(id));
+            doctors.add(SampleData.doctor(id));
+        }
+        for (long id = 1; id <= size; id++) {
+            appointments.add(SampleData.appointment(id, patients.get((int) (id * 7 % size)), doctors.get((int) (id % 20 % size))));
+        }
+    }
+
+    @Benchmark
+    public byte[] patients() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patients);
+    }
+
+    @Benchmark
+    public byte[] doctors() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(doctors);
+    }
+
+    @Benchmark
+    public byte[] appointments() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(appointments);
+    }
+}
@@ -0,0 +1,131 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.service.PatientSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PatientSearchIndex queries over a census of patients whose names repeat the way real ones
+ * do: fifty first and fifty last names shared by everyone, so common grams have postings
+ * of thousands of patients. The index is loaded from the database the way the application
+ * loads it at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientSearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Aditi", "Aditya", "Akash", "Amit", "Ananya", "Anil", "Anita", "Arjun", "Asha",
+            "Deepak", "Divya", "Gaurav", "Geeta", "Harish", "Isha", "Kavita", "Kiran", "Krishna", "Lakshmi",
+            "Manish", "Meera", "Mohan", "Neha", "Nikhil", "Nisha", "Pooja", "Pradeep", "Priya", "Rahul",
+            "Rajesh", "Ravi", "Rohan", "Sanjay", "Sara", "Shreya", "Sunil", "Sunita", "Vikram", "Vivek",
+            "Anna", "David", "Elena", "James", "John", "Maria", "Michael", "Sofia", "Thomas", "William"};
+    private static final String[] LAST_NAMES = {
+            "Agarwal", "Bhatt", "Chauhan", "Chopra", "Deshmukh", "Desai", "Gupta", "Iyer", "Jain", "Joshi",
+            "Kapoor", "Khan", "Kulkarni", "Kumar", "Malhotra", "Mehta", "Menon", "Mishra", "Nair", "Pandey",
+            "Patel", "Patil", "Pawar", "Rao", "Reddy", "Saxena", "Shah", "Sharma", "Shinde", "Singh",
+            "Sinha", "Thakur", "Trivedi", "Verma", "Yadav", "Banerjee", "Chatterjee", "Das", "Ghosh", "Mukherjee",
+            "Brown", "Fernandes", "Garcia", "Johnson", "Lopez", "Martin", "Miller", "Rodrigues", "Smith", "Williams"};
+
+    @Param({"jdbc:h2:mem:search"})
+    private String url;
+
+    @Param({"sa"})
+    private String username;
+
+    @Param({""})
+    private String password;
+
+    @Param({"10000", "100000"})
+    private int patients;
+
+    private ConfigurableApplicationContext context;
+    private PatientSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SearchConfig.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + username,
+                        "--spring.datasource.password=" + password,
+                        "--spring.datasource.driver-class-name=",
+                        "--spring.jpa.database-platform=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.healthcare=WARN");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        SampleData.clearTables(jdbc);
+        SampleData.seedUsers(jdbc, 5, patients);
+        List<Object[]> names = new ArrayList<>();
+        for (long id = 6; id <= 5 + patients; id++) {
+            names.add(new Object[]{FIRST_NAMES[(int) (id % FIRST_NAMES.length)],
+                    LAST_NAMES[(int) (id / FIRST_NAMES.length % LAST_NAMES.length)], id});
+        }
+        SampleData.batch(jdbc, "update users set first_name = ?, last_name = ? where id = ?", names);
+
+        index = context.getBean(PatientSearchIndex.class);
+        index.warmUp();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> lastName() {
+        return index.search("Kulkarni", 20);
+    }
+
+    @Benchmark
+    public List<Long> prefix() {
+        return index.search("Deshm", 20);
+    }
+
+    // One letter off, so only trigram similarity finds it
+    @Benchmark
+    public List<Long> typo() {
+        return index.search("Kulkarmi", 20);
+    }
+
+    @Benchmark
+    public List<Long> fullName() {
+        return index.search("Priya Sharma", 20);
+    }
+
+    @Benchmark
+    public List<Long> phone() {
+        return index.search("9800001234", 20);
+    }
+
+    // The JPA layer plus the index, which loads itself from PatientRepository
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class})
+    @EntityScan("com.healthcare.entity")
+    @EnableJpaRepositories("com.healthcare.repository")
+    @Import(PatientSearchIndex.class)
+    static class SearchConfig {
+    }
+}
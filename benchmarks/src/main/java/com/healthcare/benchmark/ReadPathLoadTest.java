@@ -0,0 +1,165 @@
+package com.healthcare.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the read endpoints against a running server, comparing the blocking
+ * JSON responses (JPA) with the streamed NDJSON responses (R2DBC) of the same URLs. Each client
+ * thread sends one request after another and reads the whole body; the run reports throughput,
+ * latency percentiles and errors per path and Accept type. Not a JMH benchmark, run it with
+ * -Dbenchmark.main=com.healthcare.benchmark.ReadPathLoadTest (see README).
+ *
+ * Arguments are key=value: url, username, password, clients, seconds, warmup, paths
+ * (comma separated, relative to url).
+ */
+public class ReadPathLoadTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "url", "http://localhost:8086",
+                "username", "admin",
+                "password", "password123",
+                "clients", "200",
+                "seconds", "20",
+                "warmup", "5",
+                "paths", "/api/doctor,/api/doctor/search?specialization=o,"
+                        + "/api/appointment/date-range?start=2020-01-01T00:00:00&end=2030-01-01T00:00:00"));
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+
+        String url = options.get("url");
+        int clients = Integer.parseInt(options.get("clients"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("seconds")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        String token = login(client, url, options.get("username"), options.get("password"));
+
+        System.out.printf("%d clients, %ds per run after %ds warmup against %s%n", clients,
+                duration.toSeconds(), warmup.toSeconds(), url);
+        System.out.printf("%-70s %-8s %10s %9s %9s %9s %7s%n", "path", "accept", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors");
+        for (String path : options.get("paths").split(",")) {
+            for (String accept : List.of("application/json", NDJSON)) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url + path))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Accept", accept)
+                        .timeout(Duration.ofSeconds(60))
+                        .GET()
+                        .build();
+                run(client, request, clients, warmup);
+                Result result = run(client, request, clients, duration);
+                System.out.printf("%-70s %-8s %10.1f %9.1f %9.1f %9.1f %7d%n", path,
+                        accept.equals(NDJSON) ? "ndjson" : "json", result.throughput(),
+                        result.percentile(50), result.percentile(95), result.percentile(99), result.errors());
+            }
+        }
+    }
+
+    private static String login(HttpClient client, String url, String username, String password) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(Map.of("username", username, "password", password));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url + "/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        JsonNode json = mapper.readTree(response.body());
+        return json.get("token").asText();
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int clients, Duration duration)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<long[]> latencies = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                            try (InputStream body = response.body()) {
+                                body.transferTo(OutputStream.nullOutputStream());
+                            }
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                            recorder.add(System.nanoTime() - requestStart);
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    synchronized (latencies) {
+                        latencies.add(recorder.toArray());
+                    }
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get(), elapsed);
+    }
+
+    private record Result(long[] sortedNanos, long errors, long elapsedNanos) {
+        double throughput() {
+            return sortedNanos.length / (elapsedNanos / 1e9);
+        }
+
+        double percentile(int percent) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percent / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    private static class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
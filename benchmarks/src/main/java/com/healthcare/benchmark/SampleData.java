@@ -0,0 +1,163 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deterministic sample entities and the application's own configuration, shared by the benchmarks.
+ */
+final class SampleData {
+
+    static final String[] SPECIALIZATIONS = {"Cardiology", "Neurology", "Orthopedics", "Pediatrics", "Dermatology"};
+    static final String[] STATUSES = {"SCHEDULED", "CONFIRMED", "COMPLETED", "CANCELLED"};
+    static final LocalDateTime FIRST_SLOT = LocalDate.of(2030, 1, 7).atTime(9, 0);
+    static final String INSERT_APPOINTMENT = "insert into appointments (id, patient_id, doctor_id, "
+            + "appointment_date_time, status, reason, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final Pattern CREATE_INDEX = Pattern.compile("create index (\\w+) on [^;]+");
+
+    private SampleData() {}
+
+    static Properties applicationProperties() {
+        Properties properties = new Properties();
+        try (var in = SampleData.class.getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+
+    // Creates or drops the indexes of the V2 migration, read from the application jar so they stay in step
+    static void lookupIndexes(JdbcTemplate jdbc, boolean present) {
+        String migration;
+        try (var in = SampleData.class.getResourceAsStream("/db/migration/V2__lookup_indexes.sql")) {
+            migration = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Matcher index = CREATE_INDEX.matcher(migration);
+        while (index.find()) {
+            jdbc.execute(present
+                    ? index.group().replace("create index ", "create index if not exists ")
+                    : "drop index if exists " + index.group(1));
+        }
+    }
+
+    // Empties the application's tables, children first
+    static void clearTables(JdbcTemplate jdbc) {
+        jdbc.update("delete from appointments_archive");
+        jdbc.update("delete from appointments");
+        jdbc.update("delete from doctor_availability");
+        jdbc.update("delete from user_roles");
+        jdbc.update("delete from doctors");
+        jdbc.update("delete from patients");
+        jdbc.update("delete from users");
+    }
+
+    // Doctors take ids 1..doctors, patients the ids after them
+    static void seedUsers(JdbcTemplate jdbc, int doctors, int patients) {
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> roles = new ArrayList<>();
+        List<Object[]> doctorRows = new ArrayList<>();
+        List<Object[]> availability = new ArrayList<>();
+        List<Object[]> patientRows = new ArrayList<>();
+        Timestamp created = Timestamp.valueOf(FIRST_SLOT);
+        for (long id = 1; id <= doctors + patients; id++) {
+            boolean doctor = id <= doctors;
+            String name = (doctor ? "doctor" : "patient") + id;
+            users.add(new Object[]{id, name, "$2a$10$7EqJtq98hPqEX7fNZaFWoOa2G5xAqFf9xbOLvCWhCzLtNOSpLQxTe",
+                    name + "@example.com", "First" + id, "Last" + id, "98" + String.format("%08d", id), true, created});
+            roles.add(new Object[]{id, doctor ? "DOCTOR" : "PATIENT"});
+            if (doctor) {
+                String specialization = specialization(id);
+                doctorRows.add(new Object[]{id, specialization, specialization, "LIC" + id});
+                for (String day : List.of("MONDAY", "WEDNESDAY", "FRIDAY")) {
+                    availability.add(new Object[]{id, day});
+                }
+            } else {
+                patientRows.add(new Object[]{id, "O+", id % 2 == 0 ? "FEMALE" : "MALE"});
+            }
+        }
+        batch(jdbc, "insert into users (id, username, password, email, first_name, last_name, phone, enabled, created_at) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", users);
+        batch(jdbc, "insert into user_roles (user_id, role) values (?, ?)", roles);
+        batch(jdbc, "insert into doctors (user_id, specialization, department, license_number) values (?, ?, ?, ?)", doctorRows);
+        batch(jdbc, "insert into doctor_availability (doctor_id, available_days) values (?, ?)", availability);
+        batch(jdbc, "insert into patients (user_id, blood_type, gender) values (?, ?, ?)", patientRows);
+    }
+
+    static void batch(JdbcTemplate jdbc, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbc.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+        }
+    }
+
+    static Patient patient(long id) {
+        Patient patient = new Patient("patient" + id, "$2a$10$7EqJtq98hPqEX7fNZaFWoOa2G5xAqFf9xbOLvCWhCzLtNOSpLQxTe",
+                "patient" + id + "@example.com", "First" + id, "Last" + id);
+        patient.setId(id);
+        patient.setPhone("98" + String.format("%08d", id));
+        patient.setBloodType("O+");
+        patient.setHeight(170.0);
+        patient.setWeight(68.5);
+        patient.setMedicalHistory("No significant history");
+        patient.setAllergies("None");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1).plusDays(id % 10_000));
+        patient.setGender(id % 2 == 0 ? "FEMALE" : "MALE");
+        patient.setCreatedAt(FIRST_SLOT);
+        return patient;
+    }
+
+    static Doctor doctor(long id) {
+        Doctor doctor = new Doctor("doctor" + id, "$2a$10$7EqJtq98hPqEX7fNZaFWoOa2G5xAqFf9xbOLvCWhCzLtNOSpLQxTe",
+                "doctor" + id + "@example.com", "Doc" + id, "Tor" + id, specialization(id));
+        doctor.setId(id);
+        doctor.setLicenseNumber("LIC" + id);
+        doctor.setQualifications("MBBS, MD");
+        doctor.setYearsOfExperience((int) (id % 30));
+        doctor.setConsultationFee(BigDecimal.valueOf(500 + id % 10 * 50));
+        doctor.setDepartment(specialization(id));
+        doctor.setAvailableDays(List.of("MONDAY", "WEDNESDAY", "FRIDAY"));
+        doctor.setCreatedAt(FIRST_SLOT);
+        return doctor;
+    }
+
+    static Appointment appointment(long id, Patient patient, Doctor doctor) {
+        Appointment appointment = new Appointment(patient, doctor, slot(id), status(id));
+        appointment.setId(id);
+        appointment.setReason("Routine checkup");
+        appointment.setNotes("Follow up in two weeks");
+        appointment.setCreatedAt(FIRST_SLOT);
+        return appointment;
+    }
+
+    static String specialization(long id) {
+        return SPECIALIZATIONS[(int) (id % SPECIALIZATIONS.length)];
+    }
+
+    static String status(long id) {
+        return STATUSES[(int) (id % STATUSES.length)];
+    }
+
+    // Half-hour slots, sixteen per working day
+    static LocalDateTime slot(long index) {
+        return FIRST_SLOT.plusDays(index / 16).plusMinutes(index % 16 * 30);
+    }
+}
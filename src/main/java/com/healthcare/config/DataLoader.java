@@ -4,6 +4,7 @@ import com.healthcare.entity.*;
 import com.healthcare.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,7 +14,9 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
+// Tests seed their own data
 @Component
+@Profile("!test")
 public class DataLoader implements CommandLineRunner {
 
     @Autowired
@@ -0,0 +1,75 @@
+package com.healthcare.config;
+
+import com.healthcare.metrics.EntityLoadIntegrator;
+import com.healthcare.metrics.HibernateRequestMetricsListener;
+import com.healthcare.metrics.RequestMetricsFilter;
+import com.healthcare.metrics.SqlShapeInspector;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.JdbcSettings;
+import org.hibernate.cfg.SessionEventSettings;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+
+/**
+ * Metrics beyond what Spring Boot records on its own (http.server.requests, hikaricp.*, jvm.*):
+ * the controller method on every request timer, and per-request database work collected from
+ * Hibernate, held to the SQL budget. Everything is scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Value("${app.sql-budget.mode:LOG}")
+    private RequestMetricsFilter.BudgetMode budgetMode;
+
+    @Value("${app.sql-budget.max-statements:50}")
+    private int maxStatements;
+
+    @Value("${app.sql-budget.max-repeats:10}")
+    private int maxRepeats;
+
+    @Bean
+    public HibernatePropertiesCustomizer requestMetricsHibernateCustomizer() {
+        return properties -> {
+            properties.put(SessionEventSettings.AUTO_SESSION_EVENTS_LISTENER, HibernateRequestMetricsListener.class.getName());
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.<Integrator>of(new EntityLoadIntegrator()));
+            if (budgetMode != RequestMetricsFilter.BudgetMode.OFF) {
+                properties.put(JdbcSettings.STATEMENT_INSPECTOR, new SqlShapeInspector());
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestMetricsFilter(meterRegistry, budgetMode, maxStatements, maxRepeats));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    // Adds the handling controller method to http.server.requests
+    @Bean
+    public DefaultServerRequestObservationConvention handlerObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context).and("handler",
+                        handler instanceof HandlerMethod method ? RequestMetricsFilter.handlerName(method) : "none");
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.healthcare.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * R2DBC connection pool for the streamed read endpoints, on the same database as JPA.
+ *
+ * The pool is deliberately not a bean: Spring Boot backs off its JDBC DataSource as soon as
+ * an R2DBC ConnectionFactory bean exists, and JPA, Flyway and the JDBC writers need it. For the
+ * same reason R2dbcAutoConfiguration is excluded in application.properties.
+ */
+@Configuration
+public class ReactiveReadConfig {
+
+    @Value("${app.reactive.r2dbc.url:r2dbc:h2:mem:///testdb}")
+    private String url;
+
+    @Value("${app.reactive.r2dbc.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${app.reactive.r2dbc.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${app.reactive.pool.max-size:10}")
+    private int maxSize;
+
+    @Value("${app.reactive.pool.max-acquire-ms:5000}")
+    private long maxAcquireMillis;
+
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .initialSize(1)
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(maxAcquireMillis))
+                .build());
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -2,11 +2,18 @@ package com.healthcare.config;
 
 import com.healthcare.security.CustomUserDetailsService;
 import com.healthcare.security.JwtAuthenticationFilter;
+import com.healthcare.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -27,17 +34,34 @@ import java.util.Arrays;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    // Each step doubles the cost, stop well before a login takes seconds
+    private static final int MAX_CALIBRATED_STRENGTH = 16;
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.security.bcrypt-target-millis:0}")
+    private long bcryptTargetMillis;
+
+    @Value("${app.metrics.public-scrape:false}")
+    private boolean publicScrape;
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Re-encode hashes made with a lower cost on the next successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -48,7 +72,31 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(resolveBcryptStrength()), meterRegistry);
+    }
+
+    // Raises the configured cost while one hash still fits in the target time on this machine
+    private int resolveBcryptStrength() {
+        if (bcryptTargetMillis <= 0) {
+            return bcryptStrength;
+        }
+        int strength = bcryptStrength;
+        long millis = timeHash(strength);
+        while (strength < MAX_CALIBRATED_STRENGTH && millis * 2 <= bcryptTargetMillis) {
+            strength++;
+            millis *= 2;
+        }
+        System.out.println("BCrypt cost " + strength + " (about " + millis + " ms per hash, target "
+                + bcryptTargetMillis + " ms)");
+        return strength;
+    }
+
+    private static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode("calibration");
+        long started = System.nanoTime();
+        encoder.encode("calibration");
+        return Math.max(1, (System.nanoTime() - started) / 1_000_000);
     }
 
     @Bean
@@ -58,11 +106,20 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches (streamed responses) continue a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Allow access to static resources and frontend pages
                 .requestMatchers("/", "/index.html", "/styles.css", "/app.js", "/favicon.ico").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                // Metrics name endpoints and users; scraping without a token is opt-in
+                .requestMatchers("/actuator/prometheus").access(publicScrape
+                        ? (authentication, context) -> new AuthorizationDecision(true)
+                        : AuthorityAuthorizationManager.hasRole("ADMIN"))
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // Patients read the doctor directory; which lookups they may use is decided per endpoint
+                .requestMatchers(HttpMethod.GET, "/api/doctor/**").hasAnyRole("PATIENT", "DOCTOR", "ADMIN")
                 .requestMatchers("/api/doctor/**").hasAnyRole("DOCTOR", "ADMIN")
                 .requestMatchers("/api/patient/**").hasAnyRole("PATIENT", "ADMIN")
                 .requestMatchers("/api/appointment/**").hasAnyRole("PATIENT", "DOCTOR", "ADMIN")
@@ -82,7 +139,7 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(false);
         
@@ -0,0 +1,150 @@
+package com.healthcare.controller;
+
+import com.healthcare.dto.ChangeLogPage;
+import com.healthcare.dto.DashboardStats;
+import com.healthcare.security.JwtAuthenticationCache;
+import com.healthcare.security.PhiAuditLog;
+import com.healthcare.service.AppointmentArchiver;
+import com.healthcare.service.AppointmentChangeLog;
+import com.healthcare.service.AppointmentEventBroadcaster;
+import com.healthcare.service.DashboardStatsService;
+import com.healthcare.service.DoctorAgendaCache;
+import com.healthcare.service.DoctorDirectoryCache;
+import com.healthcare.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private DoctorDirectoryCache doctorDirectoryCache;
+
+    @Autowired
+    private DoctorAgendaCache doctorAgendaCache;
+
+    @Autowired
+    private AppointmentEventBroadcaster appointmentEventBroadcaster;
+
+    @Autowired
+    private AppointmentChangeLog appointmentChangeLog;
+
+    @Autowired
+    private PhiAuditLog phiAuditLog;
+
+    @Autowired
+    private AppointmentArchiver appointmentArchiver;
+
+    @GetMapping("/stats")
+    public DashboardStats getStats() {
+        return dashboardStatsService.getStats();
+    }
+
+    @GetMapping("/security/token-cache")
+    public Map<String, Object> getTokenCacheStats() {
+        return authenticationCache.getStats();
+    }
+
+    @GetMapping("/cache/doctors")
+    public Map<String, Object> getDoctorCacheStats() {
+        return doctorDirectoryCache.getStats();
+    }
+
+    @GetMapping("/archive/appointments")
+    public Map<String, Object> getAppointmentArchiveStats() {
+        return appointmentArchiver.getStats();
+    }
+
+    // Runs the archival job now instead of waiting for the schedule
+    @PostMapping("/archive/appointments")
+    public Map<String, Object> archiveAppointments() {
+        appointmentArchiver.archive();
+        return appointmentArchiver.getStats();
+    }
+
+    @GetMapping("/cache/agenda")
+    public Map<String, Object> getAgendaCacheStats() {
+        return doctorAgendaCache.getStats();
+    }
+
+    @GetMapping("/events/appointments")
+    public Map<String, Object> getAppointmentEventStats() {
+        return appointmentEventBroadcaster.getStats();
+    }
+
+    // Replays committed appointment changes; continue with the returned nextOffset
+    @GetMapping("/changes/appointments")
+    public ResponseEntity<?> getAppointmentChanges(@RequestParam(defaultValue = "0") long from,
+                                                   @RequestParam(defaultValue = "1000") int limit) {
+        if (!appointmentChangeLog.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (from < 0 || limit <= 0) {
+            return ResponseEntity.badRequest().body("Offset must not be negative and limit must be positive");
+        }
+        ChangeLogPage page = appointmentChangeLog.read(from, Math.min(limit, 10000));
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/changes/appointments/stats")
+    public Map<String, Object> getAppointmentChangeLogStats() {
+        return appointmentChangeLog.getStats();
+    }
+
+    @GetMapping("/audit/stats")
+    public Map<String, Object> getAuditStats() {
+        return phiAuditLog.getStats();
+    }
+
+    @GetMapping("/audit/patients/{patientId}")
+    public ResponseEntity<?> getPatientAccessLog(@PathVariable Long patientId,
+                                                 @RequestParam(defaultValue = "100") int limit) {
+        if (!phiAuditLog.isDatabaseSink()) {
+            return ResponseEntity.badRequest().body("The audit trail is not written to the database");
+        }
+        return ResponseEntity.ok(phiAuditLog.findByPatient(patientId, Math.min(Math.max(limit, 1), 1000)));
+    }
+
+    @PutMapping("/users/{id}/enabled")
+    public ResponseEntity<?> setUserEnabled(@PathVariable Long id, @RequestParam boolean enabled) {
+        return userService.setUserEnabled(id, enabled)
+                .map(user -> ResponseEntity.ok().build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/users/{id}/roles")
+    public ResponseEntity<?> updateUserRoles(@PathVariable Long id, @RequestBody List<String> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one role is required");
+        }
+        return userService.updateUserRoles(id, roles)
+                .map(user -> ResponseEntity.ok().build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/users/{id}")
+    public ResponseEntity<?> deleteUser(@PathVariable Long id) {
+        if (userService.getUserById(id).isPresent()) {
+            userService.deleteUser(id);
+            return ResponseEntity.ok().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+}
@@ -1,45 +1,122 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.AppointmentExportRow;
+import com.healthcare.dto.BookedSlot;
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.FreeSlot;
 import com.healthcare.entity.Appointment;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
+import com.healthcare.metrics.SqlBudget;
+import com.healthcare.security.PhiAuditLog;
+import com.healthcare.service.AppointmentBatchService;
+import com.healthcare.service.AppointmentConflictException;
+import com.healthcare.service.AppointmentEventBroadcaster;
 import com.healthcare.service.AppointmentService;
+import com.healthcare.service.AvailabilityService;
+import com.healthcare.service.DoctorAgendaCache;
 import com.healthcare.service.DoctorService;
 import com.healthcare.service.PatientService;
+import com.healthcare.service.ReactiveReadService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/appointment")
 public class AppointmentController {
 
+    // The fields updateAppointment copies
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("appointmentDateTime", "endDateTime", "status",
+            "reason", "notes", "diagnosis", "prescription");
+
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private AppointmentBatchService appointmentBatchService;
+
+    @Autowired
+    private AppointmentEventBroadcaster eventBroadcaster;
+
+    @Autowired
+    private MergePatchSupport mergePatch;
+
+    @Autowired
+    private PhiAuditLog phiAuditLog;
+
     @Autowired
     private PatientService patientService;
 
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private ReactiveReadService reactiveReadService;
+
+    @Autowired
+    private DoctorAgendaCache agendaCache;
+
+    @Value("${app.appointments.batch.max-size:20000}")
+    private int maxBatchSize;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Appointment> getAllAppointments() {
-        return appointmentService.getAllAppointments();
+    public ResponseEntity<List<Appointment>> getAllAppointments(WebRequest request) {
+        String etag = appointmentService.getAppointmentsETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(appointmentService.getAllAppointments());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAppointmentsPage(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Appointment> page = appointmentService.getAppointmentsPage(cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or hasRole('PATIENT')")
-    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Long id) {
-        Optional<Appointment> appointment = appointmentService.getAppointmentById(id);
-        return appointment.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Long id, WebRequest request) {
+        // Answered from the versions alone when the client's copy is current
+        Optional<String> etag = appointmentService.getAppointmentETag(id);
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
+        Optional<Appointment> appointment = appointmentService.findAppointmentById(id);
+        return appointment.map(a -> ResponseEntity.ok().eTag(etag.get()).body(a))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
@@ -52,6 +129,9 @@ public class AppointmentController {
         if (appointment.getDoctor() == null || appointment.getDoctor().getId() == null) {
             return ResponseEntity.badRequest().body("Doctor ID is required");
         }
+        if (appointment.getAppointmentDateTime() == null) {
+            return ResponseEntity.badRequest().body("Appointment date and time is required");
+        }
 
         Optional<Patient> patient = patientService.getPatientById(appointment.getPatient().getId());
         Optional<Doctor> doctor = doctorService.getDoctorById(appointment.getDoctor().getId());
@@ -67,13 +147,32 @@ public class AppointmentController {
             appointment.setStatus("SCHEDULED");
         }
 
-        Appointment savedAppointment = appointmentService.saveAppointment(appointment);
-        return ResponseEntity.ok(savedAppointment);
+        try {
+            return ResponseEntity.ok(appointmentService.bookAppointment(appointment));
+        } catch (AppointmentConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    // Inserts in JDBC batches and fetches ids a sequence block at a time, both grow with the batch
+    @SqlBudget
+    public ResponseEntity<?> createAppointments(@RequestBody List<Appointment> appointments) {
+        if (appointments == null || appointments.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one appointment is required");
+        }
+        if (appointments.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("At most " + maxBatchSize + " appointments per batch");
+        }
+        return ResponseEntity.ok(appointmentBatchService.createAppointments(appointments));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or hasRole('PATIENT')")
-    public ResponseEntity<Appointment> updateAppointment(@PathVariable Long id, @RequestBody Appointment appointmentDetails) {
+    public ResponseEntity<?> updateAppointment(@PathVariable Long id, @RequestBody Appointment appointmentDetails) {
         Optional<Appointment> appointment = appointmentService.getAppointmentById(id);
         if (appointment.isPresent()) {
             Appointment existingAppointment = appointment.get();
@@ -84,12 +183,49 @@ public class AppointmentController {
             existingAppointment.setNotes(appointmentDetails.getNotes());
             existingAppointment.setDiagnosis(appointmentDetails.getDiagnosis());
             existingAppointment.setPrescription(appointmentDetails.getPrescription());
-            
-            return ResponseEntity.ok(appointmentService.saveAppointment(existingAppointment));
+
+            if (existingAppointment.getAppointmentDateTime() == null) {
+                return ResponseEntity.badRequest().body("Appointment date and time is required");
+            }
+            try {
+                return ResponseEntity.ok(appointmentService.bookAppointment(existingAppointment));
+            } catch (AppointmentConflictException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
         }
         return ResponseEntity.notFound().build();
     }
 
+    // Applies only the fields present in the body, see MergePatchSupport
+    @PatchMapping(value = "/{id}", consumes = {MergePatchSupport.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or hasRole('PATIENT')")
+    public ResponseEntity<?> patchAppointment(@PathVariable Long id, @RequestBody JsonNode patch,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Appointment> appointment = appointmentService.getAppointmentById(id);
+        if (appointment.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Appointment existingAppointment = appointment.get();
+        ResponseEntity<?> rejected = mergePatch.checkPrecondition(patch, ifMatch,
+                appointmentService.getAppointmentETag(existingAppointment), existingAppointment.getVersion());
+        if (rejected != null) {
+            return rejected;
+        }
+        try {
+            mergePatch.apply(existingAppointment, patch, PATCHABLE_FIELDS);
+            Appointment savedAppointment = appointmentService.bookAppointment(existingAppointment);
+            return ResponseEntity.ok().eTag(appointmentService.getAppointmentETag(savedAppointment)).body(savedAppointment);
+        } catch (AppointmentConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return mergePatch.conflict();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT')")
     public ResponseEntity<?> deleteAppointment(@PathVariable Long id) {
@@ -102,16 +238,100 @@ public class AppointmentController {
 
     @GetMapping("/patient/{patientId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or (hasRole('PATIENT') and #patientId == principal.id)")
-    public List<Appointment> getAppointmentsByPatient(@PathVariable Long patientId) {
+    public ResponseEntity<List<Appointment>> getAppointmentsByPatient(@PathVariable Long patientId, WebRequest request) {
+        if (!phiAuditLog.record(PhiAuditLog.Action.LIST_PATIENT_APPOINTMENTS, patientId, null)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        String etag = appointmentService.getPatientAppointmentsETag(patientId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         Optional<Patient> patient = patientService.getPatientById(patientId);
-        return patient.map(appointmentService::getAppointmentsByPatient).orElse(List.of());
+        return ResponseEntity.ok().eTag(etag)
+                .body(patient.map(appointmentService::getAppointmentsByPatient).orElse(List.of()));
     }
 
     @GetMapping("/doctor/{doctorId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
-    public List<Appointment> getAppointmentsByDoctor(@PathVariable Long doctorId) {
+    public ResponseEntity<List<Appointment>> getAppointmentsByDoctor(@PathVariable Long doctorId, WebRequest request) {
+        String etag = appointmentService.getDoctorAppointmentsETag(doctorId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
         Optional<Doctor> doctor = doctorService.getDoctorById(doctorId);
-        return doctor.map(appointmentService::getAppointmentsByDoctor).orElse(List.of());
+        return ResponseEntity.ok().eTag(etag)
+                .body(doctor.map(appointmentService::getAppointmentsByDoctor).orElse(List.of()));
+    }
+
+    // One day of the doctor's calendar with patient names, served as cached JSON
+    @GetMapping("/doctor/{doctorId}/agenda")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<byte[]> getDoctorAgenda(@PathVariable Long doctorId,
+                                                  @RequestParam(required = false) LocalDate date,
+                                                  WebRequest request) {
+        DoctorAgendaCache.Agenda agenda = agendaCache.get(doctorId, date != null ? date : LocalDate.now());
+        if (agenda == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(agenda.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(agenda.etag()).body(agenda.body());
+    }
+
+    // Server-sent events for the same appointments as the list endpoints above
+    @GetMapping(value = "/patient/{patientId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or (hasRole('PATIENT') and #patientId == principal.id)")
+    public ResponseEntity<SseEmitter> subscribePatientEvents(@PathVariable Long patientId) {
+        if (!phiAuditLog.record(PhiAuditLog.Action.SUBSCRIBE_PATIENT_APPOINTMENTS, patientId, null)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            return ResponseEntity.ok(eventBroadcaster.subscribePatient(patientId));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping(value = "/doctor/{doctorId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<SseEmitter> subscribeDoctorEvents(@PathVariable Long doctorId) {
+        try {
+            return ResponseEntity.ok(eventBroadcaster.subscribeDoctor(doctorId));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/doctor/{doctorId}/booked")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or hasRole('PATIENT')")
+    public ResponseEntity<?> getBookedSlots(
+            @PathVariable Long doctorId,
+            @RequestParam LocalDateTime start,
+            @RequestParam LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().body("Start must be before end");
+        }
+        List<BookedSlot> slots = appointmentService.getBookedSlots(doctorId, start, end);
+        return ResponseEntity.ok(slots);
+    }
+
+    @GetMapping("/free-slots")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or hasRole('PATIENT')")
+    public ResponseEntity<?> findFreeSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String department,
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to,
+            @RequestParam(defaultValue = "30") int durationMinutes,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<FreeSlot> slots = availabilityService.findFreeSlots(specialization, department, from, to,
+                    durationMinutes, Math.min(Math.max(limit, 1), 200));
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/status/{status}")
@@ -120,6 +340,19 @@ public class AppointmentController {
         return appointmentService.getAppointmentsByStatus(status);
     }
 
+    @GetMapping("/status/{status}/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<?> getAppointmentsByStatusPage(@PathVariable String status,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Appointment> page = appointmentService.getAppointmentsByStatusPage(status, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/date-range")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
     public List<Appointment> getAppointmentsBetweenDates(
@@ -127,4 +360,28 @@ public class AppointmentController {
             @RequestParam LocalDateTime end) {
         return appointmentService.getAppointmentsBetweenDates(start, end);
     }
+
+    // Requested with Accept: application/x-ndjson; streamed from R2DBC in time order, one appointment per line
+    @GetMapping(value = "/date-range", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public Flux<AppointmentExportRow> streamAppointmentsBetweenDates(
+            @RequestParam LocalDateTime start,
+            @RequestParam LocalDateTime end) {
+        return reactiveReadService.findAppointmentsBetween(start, end);
+    }
+
+    @GetMapping("/date-range/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<?> getAppointmentsBetweenDatesPage(
+            @RequestParam LocalDateTime start,
+            @RequestParam LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Appointment> page = appointmentService.getAppointmentsBetweenDatesPage(start, end, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
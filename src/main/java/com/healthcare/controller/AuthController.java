@@ -6,18 +6,22 @@ import com.healthcare.dto.SignupRequest;
 import com.healthcare.entity.User;
 import com.healthcare.repository.UserRepository;
 import com.healthcare.security.JwtUtil;
+import com.healthcare.security.PasswordHashingExecutor;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -36,23 +40,36 @@ public class AuthController {
     @Autowired
     JwtUtil jwtUtil;
 
+    @Autowired
+    PasswordHashingExecutor hashingExecutor;
+
+    // BCrypt runs on the hashing pool, the request thread is released while it waits
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+        System.out.println("Login attempt for user: " + loginRequest.getUsername());
         try {
-            System.out.println("Login attempt for user: " + loginRequest.getUsername());
-            
+            return hashingExecutor.submit(() -> signIn(loginRequest));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Password hashing queue full, rejecting login for: " + loginRequest.getUsername());
+            return CompletableFuture.completedFuture(busy());
+        }
+    }
+
+    private ResponseEntity<?> signIn(LoginRequest loginRequest) {
+        try {
+            // The authentication is only used to issue the token, it is not kept in the (pooled) thread's context
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            String jwt = jwtUtil.generateToken((org.springframework.security.core.userdetails.User) authentication.getPrincipal());
-            
-            org.springframework.security.core.userdetails.User userDetails = 
+            org.springframework.security.core.userdetails.User userDetails =
                 (org.springframework.security.core.userdetails.User) authentication.getPrincipal();
-            
+
             User user = userRepository.findByUsername(userDetails.getUsername())
                     .orElseThrow(() -> new RuntimeException("User not found"));
-            
+
+            // Embed id and roles so later requests can authenticate without a user lookup
+            String jwt = jwtUtil.generateToken(userDetails, user.getId());
+
             List<String> roles = userDetails.getAuthorities().stream()
                     .map(GrantedAuthority::getAuthority)
                     .collect(Collectors.toList());
@@ -70,7 +87,7 @@ public class AuthController {
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody SignupRequest signUpRequest) {
         System.out.println("Registration attempt for: " + signUpRequest.getUsername());
         System.out.println("Email: " + signUpRequest.getEmail());
         System.out.println("First Name: " + signUpRequest.getFirstName());
@@ -80,15 +97,29 @@ public class AuthController {
             // Check if username exists
             if (userRepository.existsByUsername(signUpRequest.getUsername())) {
                 System.out.println("Username already exists: " + signUpRequest.getUsername());
-                return ResponseEntity.badRequest().body("Error: Username is already taken!");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: Username is already taken!"));
             }
 
             // Check if email exists
             if (userRepository.existsByEmail(signUpRequest.getEmail())) {
                 System.out.println("Email already exists: " + signUpRequest.getEmail());
-                return ResponseEntity.badRequest().body("Error: Email is already in use!");
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: Email is already in use!"));
             }
 
+            return hashingExecutor.submit(() -> createUser(signUpRequest));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Password hashing queue full, rejecting registration for: " + signUpRequest.getUsername());
+            return CompletableFuture.completedFuture(busy());
+        } catch (Exception e) {
+            System.err.println("Registration error: " + e.getMessage());
+            e.printStackTrace();
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("Error: Registration failed - " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> createUser(SignupRequest signUpRequest) {
+        try {
             // Create new user - use simple User entity instead of Patient for now
             User user = new User(
                 signUpRequest.getUsername(),
@@ -113,6 +144,12 @@ public class AuthController {
         }
     }
 
+    private ResponseEntity<?> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(hashingExecutor.getRetryAfterSeconds()))
+                .body("Error: Too many sign-in requests, please retry shortly");
+    }
+
     // Test endpoint to check if auth is working
     @GetMapping("/test")
     public String testAuth() {
@@ -1,34 +1,82 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.DoctorSummary;
 import com.healthcare.entity.Doctor;
+import com.healthcare.service.DoctorDirectoryCache.CachedJson;
 import com.healthcare.service.DoctorService;
+import com.healthcare.service.ReactiveReadService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/doctor")
 public class DoctorController {
 
+    // The fields updateDoctor copies
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("firstName", "lastName", "email", "phone",
+            "specialization", "licenseNumber", "qualifications", "yearsOfExperience", "consultationFee",
+            "department", "availableDays", "bio");
+
     @Autowired
     private DoctorService doctorService;
 
+    @Autowired
+    private MergePatchSupport mergePatch;
+
+    @Autowired
+    private ReactiveReadService reactiveReadService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT') or hasRole('DOCTOR')")
-    public List<Doctor> getAllDoctors() {
-        return doctorService.getAllDoctors();
+    public ResponseEntity<byte[]> getAllDoctors(WebRequest request) {
+        if (isNotModified(request, doctorService::getDirectoryETag)) {
+            return null;
+        }
+        return json(doctorService.getAllDoctorsJson());
+    }
+
+    // Requested with Accept: application/x-ndjson; streamed from R2DBC, one doctor per line
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT') or hasRole('DOCTOR')")
+    public Flux<DoctorSummary> streamAllDoctors() {
+        return reactiveReadService.findDoctors();
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT') or hasRole('DOCTOR')")
+    public ResponseEntity<?> getDoctorsPage(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Doctor> page = doctorService.getDoctorsPage(cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT') or hasRole('DOCTOR')")
-    public ResponseEntity<Doctor> getDoctorById(@PathVariable Long id) {
-        Optional<Doctor> doctor = doctorService.getDoctorById(id);
-        return doctor.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getDoctorById(@PathVariable Long id, WebRequest request) {
+        if (isNotModified(request, () -> doctorService.getDoctorETag(id).orElse(null))) {
+            return null;
+        }
+        CachedJson doctor = doctorService.getDoctorJsonById(id);
+        return doctor != null ? json(doctor) : ResponseEntity.notFound().build();
     }
 
     @PostMapping
@@ -61,6 +109,32 @@ public class DoctorController {
         return ResponseEntity.notFound().build();
     }
 
+    // Applies only the fields present in the body, see MergePatchSupport
+    @PatchMapping(value = "/{id}", consumes = {MergePatchSupport.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('DOCTOR') and #id == principal.id)")
+    public ResponseEntity<?> patchDoctor(@PathVariable Long id, @RequestBody JsonNode patch,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Doctor> doctor = doctorService.getDoctorById(id);
+        if (doctor.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Doctor existingDoctor = doctor.get();
+        ResponseEntity<?> rejected = mergePatch.checkPrecondition(patch, ifMatch,
+                doctorService.getDoctorETag(existingDoctor), existingDoctor.getVersion());
+        if (rejected != null) {
+            return rejected;
+        }
+        try {
+            mergePatch.apply(existingDoctor, patch, PATCHABLE_FIELDS);
+            Doctor savedDoctor = doctorService.saveDoctor(existingDoctor);
+            return ResponseEntity.ok().eTag(doctorService.getDoctorETag(savedDoctor)).body(savedDoctor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return mergePatch.conflict();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteDoctor(@PathVariable Long id) {
@@ -73,14 +147,20 @@ public class DoctorController {
 
     @GetMapping("/specialization/{specialization}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT')")
-    public List<Doctor> getDoctorsBySpecialization(@PathVariable String specialization) {
-        return doctorService.getDoctorsBySpecialization(specialization);
+    public ResponseEntity<byte[]> getDoctorsBySpecialization(@PathVariable String specialization, WebRequest request) {
+        if (isNotModified(request, doctorService::getDirectoryETag)) {
+            return null;
+        }
+        return json(doctorService.getDoctorsBySpecializationJson(specialization));
     }
 
     @GetMapping("/department/{department}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT')")
-    public List<Doctor> getDoctorsByDepartment(@PathVariable String department) {
-        return doctorService.getDoctorsByDepartment(department);
+    public ResponseEntity<byte[]> getDoctorsByDepartment(@PathVariable String department, WebRequest request) {
+        if (isNotModified(request, doctorService::getDirectoryETag)) {
+            return null;
+        }
+        return json(doctorService.getDoctorsByDepartmentJson(department));
     }
 
     @GetMapping("/search")
@@ -88,4 +168,24 @@ public class DoctorController {
     public List<Doctor> searchDoctorsBySpecialization(@RequestParam String specialization) {
         return doctorService.searchDoctorsBySpecialization(specialization);
     }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT')")
+    public Flux<DoctorSummary> streamDoctorsBySpecialization(@RequestParam String specialization) {
+        return reactiveReadService.searchDoctorsBySpecialization(specialization);
+    }
+
+    // Cache hits need no database at all, so the current version is only read when the client sent an ETag
+    private static boolean isNotModified(WebRequest request, Supplier<String> etag) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return false;
+        }
+        String current = etag.get();
+        return current != null && request.checkNotModified(current);
+    }
+
+    // Directory lookups come back already serialized from the doctor cache, tagged with the version they were read at
+    private static ResponseEntity<byte[]> json(CachedJson json) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(json.etag()).body(json.body());
+    }
 }
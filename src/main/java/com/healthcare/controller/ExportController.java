@@ -0,0 +1,81 @@
+package com.healthcare.controller;
+
+import com.healthcare.service.BulkImportService;
+import com.healthcare.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/appointments")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(@RequestParam(defaultValue = "ndjson") String format,
+                                                                    @RequestParam(required = false) Long doctorId,
+                                                                    @RequestParam(required = false) Long patientId,
+                                                                    @RequestParam(required = false) String status,
+                                                                    @RequestParam(required = false) LocalDateTime start,
+                                                                    @RequestParam(required = false) LocalDateTime end) {
+        BulkImportService.Format resolved = resolveFormat(format);
+        if (resolved == null) {
+            return badRequest("Unsupported export format, use csv or ndjson");
+        }
+        if (start != null && end != null && end.isBefore(start)) {
+            return badRequest("End must not be before start");
+        }
+        StreamingResponseBody body = out ->
+                exportService.exportAppointments(out, resolved, doctorId, patientId, status, start, end);
+        return attachment("appointments", resolved, body);
+    }
+
+    @GetMapping("/patients")
+    public ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(defaultValue = "ndjson") String format) {
+        BulkImportService.Format resolved = resolveFormat(format);
+        if (resolved == null) {
+            return badRequest("Unsupported export format, use csv or ndjson");
+        }
+        StreamingResponseBody body = out -> exportService.exportPatients(out, resolved);
+        return attachment("patients", resolved, body);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> attachment(String name, BulkImportService.Format format,
+                                                                    StreamingResponseBody body) {
+        boolean csv = format == BulkImportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+
+    // The streaming return value handler only accepts a StreamingResponseBody, so errors are written through one too
+    private static ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static BulkImportService.Format resolveFormat(String format) {
+        return switch (format.toLowerCase()) {
+            case "csv" -> BulkImportService.Format.CSV;
+            case "ndjson", "json" -> BulkImportService.Format.NDJSON;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package com.healthcare.controller;
+
+import com.healthcare.dto.ImportResult;
+import com.healthcare.metrics.SqlBudget;
+import com.healthcare.service.BulkImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin/import")
+@PreAuthorize("hasRole('ADMIN')")
+// Statements grow with the number of rows imported
+@SqlBudget
+public class ImportController {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    // The request body is read as a stream, send it as text/csv (with a header row) or application/x-ndjson
+    @PostMapping("/{entity}")
+    public ResponseEntity<?> importRecords(@PathVariable String entity,
+                                           @RequestParam(required = false) String format,
+                                           HttpServletRequest request) throws IOException {
+        BulkImportService.Format resolved = resolveFormat(format, request.getContentType());
+        if (resolved == null) {
+            return ResponseEntity.badRequest().body("Send text/csv or application/x-ndjson, or pass format=csv|ndjson");
+        }
+
+        InputStream body = request.getInputStream();
+        ImportResult result;
+        switch (entity) {
+            case "patients" -> result = bulkImportService.importPatients(body, resolved);
+            case "doctors" -> result = bulkImportService.importDoctors(body, resolved);
+            case "appointments" -> result = bulkImportService.importAppointments(body, resolved);
+            default -> {
+                return ResponseEntity.badRequest().body("Unknown import type: " + entity);
+            }
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    private static BulkImportService.Format resolveFormat(String format, String contentType) {
+        // The servlet container consumes form bodies while parsing parameters
+        if (contentType != null && (contentType.contains("form-urlencoded") || contentType.contains("multipart"))) {
+            return null;
+        }
+        String value = format != null ? format : contentType;
+        if (value == null) {
+            return null;
+        }
+        value = value.toLowerCase();
+        if (value.contains("csv")) {
+            return BulkImportService.Format.CSV;
+        }
+        if (value.contains("ndjson") || value.contains("json")) {
+            return BulkImportService.Format.NDJSON;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.healthcare.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * JSON Merge Patch (RFC 7386) for the entity PATCH endpoints. Only an allow-list of
+ * top-level fields can be patched, and the entity is validated as a whole afterwards.
+ * Changes are applied to the managed entity, so Hibernate writes just the changed columns.
+ *
+ * Every patch has to name the version it was made against, either as If-Match with the
+ * ETag from the GET or as a "version" field in the body. @Version catches edits that
+ * land between this check and the commit.
+ */
+@Component
+class MergePatchSupport {
+
+    static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * Returns the response rejecting the patch, or null when it may be applied.
+     */
+    ResponseEntity<?> checkPrecondition(JsonNode patch, String ifMatch, String currentETag, Long currentVersion) {
+        if (patch == null || !patch.isObject()) {
+            return ResponseEntity.badRequest().body("A merge patch must be a JSON object");
+        }
+        JsonNode version = patch.get("version");
+        boolean hasVersion = version != null && !version.isNull();
+        if (ifMatch == null && !hasVersion) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED)
+                    .body("Send If-Match with the record's ETag, or the version being edited");
+        }
+        if (ifMatch != null && !matches(ifMatch, currentETag)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(changedMessage());
+        }
+        if (hasVersion && (!version.canConvertToLong() || version.asLong() != currentVersion)) {
+            return conflict();
+        }
+        return null;
+    }
+
+    /**
+     * Applies the patch to the entity. Throws IllegalArgumentException for fields that cannot
+     * be patched, values of the wrong type and constraint violations.
+     */
+    void apply(Object entity, JsonNode patch, Set<String> patchableFields) {
+        ObjectNode changes = ((ObjectNode) patch).deepCopy();
+        changes.remove("version");
+        Iterator<String> names = changes.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!patchableFields.contains(name)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + name);
+            }
+        }
+
+        try {
+            objectMapper.readerForUpdating(entity).readValue(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid value: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getMessage());
+        }
+
+        for (ConstraintViolation<Object> violation : validator.validate(entity)) {
+            throw new IllegalArgumentException(violation.getPropertyPath() + " " + violation.getMessage());
+        }
+    }
+
+    ResponseEntity<?> conflict() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(changedMessage());
+    }
+
+    // If-Match uses the strong comparison, weak tags never match
+    private static boolean matches(String ifMatch, String currentETag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals("\"" + currentETag + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String changedMessage() {
+        return "The record was changed by someone else, reload it and try again";
+    }
+}
@@ -1,34 +1,82 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.entity.Patient;
+import com.healthcare.security.PhiAuditLog;
 import com.healthcare.service.PatientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/patient")
 public class PatientController {
 
+    // The fields updatePatient copies
+    private static final Set<String> PATCHABLE_FIELDS = Set.of("firstName", "lastName", "email", "phone",
+            "bloodType", "height", "weight", "medicalHistory", "allergies", "emergencyContactName",
+            "emergencyContactPhone", "dateOfBirth", "gender");
+
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private MergePatchSupport mergePatch;
+
+    @Autowired
+    private PhiAuditLog phiAuditLog;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
-    public List<Patient> getAllPatients() {
-        return patientService.getAllPatients();
+    public ResponseEntity<List<Patient>> getAllPatients(WebRequest request) {
+        String etag = patientService.getPatientsETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(patientService.getAllPatients());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
+    public ResponseEntity<?> getPatientsPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<Patient> page = patientService.getPatientsPage(cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR') or (hasRole('PATIENT') and #id == principal.id)")
-    public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
+    public ResponseEntity<Patient> getPatientById(@PathVariable Long id, WebRequest request) {
+        // Answered from the version alone when the client's copy is current
+        Optional<String> etag = patientService.getPatientETag(id);
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!phiAuditLog.record(PhiAuditLog.Action.VIEW_PATIENT, id, null)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
         Optional<Patient> patient = patientService.getPatientById(id);
-        return patient.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return patient.map(p -> ResponseEntity.ok().eTag(etag.get()).body(p))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
@@ -62,6 +110,32 @@ public class PatientController {
         return ResponseEntity.notFound().build();
     }
 
+    // Applies only the fields present in the body, see MergePatchSupport
+    @PatchMapping(value = "/{id}", consumes = {MergePatchSupport.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('PATIENT') and #id == principal.id)")
+    public ResponseEntity<?> patchPatient(@PathVariable Long id, @RequestBody JsonNode patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Patient> patient = patientService.getPatientById(id);
+        if (patient.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Patient existingPatient = patient.get();
+        ResponseEntity<?> rejected = mergePatch.checkPrecondition(patch, ifMatch,
+                patientService.getPatientETag(existingPatient), existingPatient.getVersion());
+        if (rejected != null) {
+            return rejected;
+        }
+        try {
+            mergePatch.apply(existingPatient, patch, PATCHABLE_FIELDS);
+            Patient savedPatient = patientService.savePatient(existingPatient);
+            return ResponseEntity.ok().eTag(patientService.getPatientETag(savedPatient)).body(savedPatient);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return mergePatch.conflict();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deletePatient(@PathVariable Long id) {
@@ -74,7 +148,28 @@ public class PatientController {
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DOCTOR')")
-    public List<Patient> searchPatientsByLastName(@RequestParam String lastName) {
-        return patientService.searchPatientsByLastName(lastName);
+    public ResponseEntity<?> searchPatients(@RequestParam(required = false) String q,
+                                            @RequestParam(required = false) String lastName,
+                                            @RequestParam(required = false) Integer limit) {
+        List<Patient> patients;
+        String criteria;
+        if (q != null && !q.isBlank()) {
+            patients = patientService.searchPatients(q, limit);
+            criteria = "q=" + q;
+        } else if (lastName != null && !lastName.isBlank()) {
+            patients = patientService.searchPatientsByLastName(lastName);
+            criteria = "lastName=" + lastName;
+        } else {
+            return ResponseEntity.badRequest().body("Either q or lastName is required");
+        }
+        // Every patient in the result counts as read
+        if (!phiAuditLog.record(PhiAuditLog.Action.SEARCH_PATIENTS, patients.stream().map(Patient::getId).toList(), criteria)) {
+            return auditUnavailable();
+        }
+        return ResponseEntity.ok(patients);
+    }
+
+    private static ResponseEntity<?> auditUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Audit trail unavailable, try again later");
     }
 }
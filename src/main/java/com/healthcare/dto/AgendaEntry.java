@@ -0,0 +1,82 @@
+package com.healthcare.dto;
+
+import java.time.LocalDateTime;
+
+// One appointment in a doctor's day, with only the patient's name for display
+public class AgendaEntry {
+    private Long id;
+    private LocalDateTime appointmentDateTime;
+    private LocalDateTime endDateTime;
+    private String status;
+    private String reason;
+    private Long patientId;
+    private String patientName;
+
+    public AgendaEntry(Long id, LocalDateTime appointmentDateTime, LocalDateTime endDateTime, String status,
+                       String reason, Long patientId, String patientFirstName, String patientLastName) {
+        this.id = id;
+        this.appointmentDateTime = appointmentDateTime;
+        this.endDateTime = endDateTime;
+        this.status = status;
+        this.reason = reason;
+        this.patientId = patientId;
+        this.patientName = patientFirstName + " " + patientLastName;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public void setAppointmentDateTime(LocalDateTime appointmentDateTime) {
+        this.appointmentDateTime = appointmentDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public void setEndDateTime(LocalDateTime endDateTime) {
+        this.endDateTime = endDateTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+}
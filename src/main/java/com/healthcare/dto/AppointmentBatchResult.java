@@ -0,0 +1,92 @@
+package com.healthcare.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppointmentBatchResult {
+    private int requested;
+    private int created;
+    private int rejected;
+    private List<Item> items = new ArrayList<>();
+    private long durationMillis;
+
+    public AppointmentBatchResult(int requested) {
+        this.requested = requested;
+    }
+
+    // One entry per requested appointment, in request order
+    public static class Item {
+        private int index;
+        private Long id;
+        private String error;
+
+        public Item(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+
+    // Getters and setters
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
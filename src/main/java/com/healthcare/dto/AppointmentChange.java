@@ -0,0 +1,30 @@
+package com.healthcare.dto;
+
+import java.time.Instant;
+
+/**
+ * An appointment event as read back from the change log, with its position in the log.
+ */
+public class AppointmentChange extends AppointmentEvent {
+    private long offset;
+    private Instant loggedAt;
+
+    public AppointmentChange() {}
+
+    // Getters and setters
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public Instant getLoggedAt() {
+        return loggedAt;
+    }
+
+    public void setLoggedAt(Instant loggedAt) {
+        this.loggedAt = loggedAt;
+    }
+}
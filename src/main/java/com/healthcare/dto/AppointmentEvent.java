@@ -0,0 +1,133 @@
+package com.healthcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.healthcare.entity.Appointment;
+
+import java.time.LocalDateTime;
+
+/**
+ * What subscribers of the appointment feed receive. Only ids and scheduling fields, the
+ * client fetches the appointment itself if it needs more.
+ */
+public class AppointmentEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private Type type;
+    private Long appointmentId;
+    private Long patientId;
+    private Long doctorId;
+    private LocalDateTime appointmentDateTime;
+    private LocalDateTime endDateTime;
+    private String status;
+    private Long version;
+    // Start and booking before an update moved them; for in-process listeners only, not sent or logged
+    private LocalDateTime previousAppointmentDateTime;
+    private BookedSlot previousSlot;
+
+    public AppointmentEvent() {}
+
+    public static AppointmentEvent of(Type type, Appointment appointment) {
+        AppointmentEvent event = new AppointmentEvent();
+        event.type = type;
+        event.appointmentId = appointment.getId();
+        event.patientId = appointment.getPatient() != null ? appointment.getPatient().getId() : null;
+        event.doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
+        event.appointmentDateTime = appointment.getAppointmentDateTime();
+        event.endDateTime = appointment.getEndDateTime();
+        event.status = appointment.getStatus();
+        event.version = appointment.getVersion();
+        return event;
+    }
+
+    public static AppointmentEvent of(Type type, Appointment appointment, LocalDateTime previousAppointmentDateTime,
+                                      BookedSlot previousSlot) {
+        AppointmentEvent event = of(type, appointment);
+        event.previousAppointmentDateTime = previousAppointmentDateTime;
+        event.previousSlot = previousSlot;
+        return event;
+    }
+
+    // Getters and setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public void setAppointmentDateTime(LocalDateTime appointmentDateTime) {
+        this.appointmentDateTime = appointmentDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public void setEndDateTime(LocalDateTime endDateTime) {
+        this.endDateTime = endDateTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @JsonIgnore
+    public LocalDateTime getPreviousAppointmentDateTime() {
+        return previousAppointmentDateTime;
+    }
+
+    public void setPreviousAppointmentDateTime(LocalDateTime previousAppointmentDateTime) {
+        this.previousAppointmentDateTime = previousAppointmentDateTime;
+    }
+
+    @JsonIgnore
+    public BookedSlot getPreviousSlot() {
+        return previousSlot;
+    }
+
+    public void setPreviousSlot(BookedSlot previousSlot) {
+        this.previousSlot = previousSlot;
+    }
+}
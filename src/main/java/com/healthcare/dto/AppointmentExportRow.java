@@ -0,0 +1,169 @@
+package com.healthcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+
+// Column names match what the bulk import accepts, so an export can be re-imported
+@JsonPropertyOrder({"id", "patientId", "patientName", "doctorId", "doctorName", "department", "appointmentDateTime",
+        "endDateTime", "status", "reason", "notes", "diagnosis", "prescription", "createdAt", "updatedAt"})
+public class AppointmentExportRow {
+    private Long id;
+    private Long patientId;
+    private String patientName;
+    private Long doctorId;
+    private String doctorName;
+    private String department;
+    private LocalDateTime appointmentDateTime;
+    private LocalDateTime endDateTime;
+    private String status;
+    private String reason;
+    private String notes;
+    private String diagnosis;
+    private String prescription;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public AppointmentExportRow(Long id, Long patientId, String patientFirstName, String patientLastName,
+                                Long doctorId, String doctorFirstName, String doctorLastName, String department,
+                                LocalDateTime appointmentDateTime, LocalDateTime endDateTime, String status,
+                                String reason, String notes, String diagnosis, String prescription,
+                                LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.patientId = patientId;
+        this.patientName = patientFirstName + " " + patientLastName;
+        this.doctorId = doctorId;
+        this.doctorName = doctorFirstName + " " + doctorLastName;
+        this.department = department;
+        this.appointmentDateTime = appointmentDateTime;
+        this.endDateTime = endDateTime;
+        this.status = status;
+        this.reason = reason;
+        this.notes = notes;
+        this.diagnosis = diagnosis;
+        this.prescription = prescription;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public void setAppointmentDateTime(LocalDateTime appointmentDateTime) {
+        this.appointmentDateTime = appointmentDateTime;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+
+    public void setEndDateTime(LocalDateTime endDateTime) {
+        this.endDateTime = endDateTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public String getDiagnosis() {
+        return diagnosis;
+    }
+
+    public void setDiagnosis(String diagnosis) {
+        this.diagnosis = diagnosis;
+    }
+
+    public String getPrescription() {
+        return prescription;
+    }
+
+    public void setPrescription(String prescription) {
+        this.prescription = prescription;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
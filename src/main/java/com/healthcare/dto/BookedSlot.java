@@ -0,0 +1,54 @@
+package com.healthcare.dto;
+
+import java.time.LocalDateTime;
+
+public class BookedSlot {
+    private Long appointmentId;
+    private Long doctorId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public BookedSlot(Long appointmentId, Long doctorId, LocalDateTime start, LocalDateTime end) {
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Getters and setters
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && end.isAfter(otherStart);
+    }
+}
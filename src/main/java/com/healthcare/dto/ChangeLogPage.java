@@ -0,0 +1,42 @@
+package com.healthcare.dto;
+
+import java.util.List;
+
+public class ChangeLogPage {
+    private List<AppointmentChange> changes;
+    // Where the next read continues
+    private long nextOffset;
+    // Offset the next logged change will get
+    private long endOffset;
+
+    public ChangeLogPage(List<AppointmentChange> changes, long nextOffset, long endOffset) {
+        this.changes = changes;
+        this.nextOffset = nextOffset;
+        this.endOffset = endOffset;
+    }
+
+    // Getters and setters
+    public List<AppointmentChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<AppointmentChange> changes) {
+        this.changes = changes;
+    }
+
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public void setEndOffset(long endOffset) {
+        this.endOffset = endOffset;
+    }
+}
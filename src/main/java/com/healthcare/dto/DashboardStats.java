@@ -0,0 +1,83 @@
+package com.healthcare.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class DashboardStats {
+    private long totalPatients;
+    private long totalDoctors;
+    private long totalAppointments;
+    private long appointmentsToday;
+    private Map<String, Long> appointmentsByStatus;
+    private Map<String, Long> appointmentsByDepartment;
+    private LocalDateTime reconciledAt;
+
+    public DashboardStats(long totalPatients, long totalDoctors, long totalAppointments, long appointmentsToday,
+                          Map<String, Long> appointmentsByStatus, Map<String, Long> appointmentsByDepartment,
+                          LocalDateTime reconciledAt) {
+        this.totalPatients = totalPatients;
+        this.totalDoctors = totalDoctors;
+        this.totalAppointments = totalAppointments;
+        this.appointmentsToday = appointmentsToday;
+        this.appointmentsByStatus = appointmentsByStatus;
+        this.appointmentsByDepartment = appointmentsByDepartment;
+        this.reconciledAt = reconciledAt;
+    }
+
+    // Getters and setters
+    public long getTotalPatients() {
+        return totalPatients;
+    }
+
+    public void setTotalPatients(long totalPatients) {
+        this.totalPatients = totalPatients;
+    }
+
+    public long getTotalDoctors() {
+        return totalDoctors;
+    }
+
+    public void setTotalDoctors(long totalDoctors) {
+        this.totalDoctors = totalDoctors;
+    }
+
+    public long getTotalAppointments() {
+        return totalAppointments;
+    }
+
+    public void setTotalAppointments(long totalAppointments) {
+        this.totalAppointments = totalAppointments;
+    }
+
+    public long getAppointmentsToday() {
+        return appointmentsToday;
+    }
+
+    public void setAppointmentsToday(long appointmentsToday) {
+        this.appointmentsToday = appointmentsToday;
+    }
+
+    public Map<String, Long> getAppointmentsByStatus() {
+        return appointmentsByStatus;
+    }
+
+    public void setAppointmentsByStatus(Map<String, Long> appointmentsByStatus) {
+        this.appointmentsByStatus = appointmentsByStatus;
+    }
+
+    public Map<String, Long> getAppointmentsByDepartment() {
+        return appointmentsByDepartment;
+    }
+
+    public void setAppointmentsByDepartment(Map<String, Long> appointmentsByDepartment) {
+        this.appointmentsByDepartment = appointmentsByDepartment;
+    }
+
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(LocalDateTime reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.healthcare.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// A doctor's appointments on one day, in time order
+public class DoctorAgenda {
+    private Long doctorId;
+    private LocalDate date;
+    private List<AgendaEntry> appointments;
+
+    public DoctorAgenda(Long doctorId, LocalDate date, List<AgendaEntry> appointments) {
+        this.doctorId = doctorId;
+        this.date = date;
+        this.appointments = appointments;
+    }
+
+    // Getters and setters
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<AgendaEntry> getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(List<AgendaEntry> appointments) {
+        this.appointments = appointments;
+    }
+}
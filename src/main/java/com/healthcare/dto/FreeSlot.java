@@ -0,0 +1,71 @@
+package com.healthcare.dto;
+
+import java.time.LocalDateTime;
+
+public class FreeSlot {
+    private Long doctorId;
+    private String doctorName;
+    private String specialization;
+    private String department;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public FreeSlot(Long doctorId, String doctorName, String specialization, String department,
+                    LocalDateTime start, LocalDateTime end) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.specialization = specialization;
+        this.department = department;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Getters and setters
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(String specialization) {
+        this.specialization = specialization;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+}
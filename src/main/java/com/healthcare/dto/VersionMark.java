@@ -0,0 +1,34 @@
+package com.healthcare.dto;
+
+/**
+ * High-water mark of a set of versioned rows. Versions only grow and ids are never
+ * reused, so any insert, update or delete changes at least one of the three numbers.
+ */
+public class VersionMark {
+    private final long count;
+    private final long maxId;
+    private final long versionSum;
+
+    public VersionMark(Long count, Long maxId, Long versionSum) {
+        this.count = count != null ? count : 0;
+        this.maxId = maxId != null ? maxId : 0;
+        this.versionSum = versionSum != null ? versionSum : 0;
+    }
+
+    public String toETag() {
+        return count + "-" + maxId + "-" + versionSum;
+    }
+
+    // Getters
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public long getVersionSum() {
+        return versionSum;
+    }
+}
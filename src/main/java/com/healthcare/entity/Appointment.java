@@ -1,15 +1,27 @@
 package com.healthcare.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
 @Table(name = "appointments")
+// List reads fetch both participants in the same query instead of one lazy load per row
+@NamedEntityGraph(name = Appointment.WITH_PARTICIPANTS, attributeNodes = {
+        @NamedAttributeNode("patient"),
+        @NamedAttributeNode("doctor")
+})
 public class Appointment {
+    public static final String WITH_PARTICIPANTS = "Appointment.withParticipants";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids (allocated 50 at a time) let Hibernate batch inserts, which IDENTITY prevents
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -45,6 +57,22 @@ public class Appointment {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
+    // State as last read from or written to the database, used to apply deltas on update
+    @Transient
+    private String persistedStatus;
+
+    @Transient
+    private LocalDateTime persistedAppointmentDateTime;
+
+    @Transient
+    private LocalDateTime persistedEndDateTime;
+
+    @Transient
+    private Long persistedDoctorId;
+
     // Constructors
     public Appointment() {}
 
@@ -92,6 +120,21 @@ public class Appointment {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    @JsonIgnore
+    public String getPersistedStatus() { return persistedStatus; }
+
+    @JsonIgnore
+    public LocalDateTime getPersistedAppointmentDateTime() { return persistedAppointmentDateTime; }
+
+    @JsonIgnore
+    public LocalDateTime getPersistedEndDateTime() { return persistedEndDateTime; }
+
+    @JsonIgnore
+    public Long getPersistedDoctorId() { return persistedDoctorId; }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -102,4 +145,15 @@ public class Appointment {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void onSync() {
+        persistedStatus = status;
+        persistedAppointmentDateTime = appointmentDateTime;
+        persistedEndDateTime = endDateTime;
+        // The id of a lazy proxy is read without loading it
+        persistedDoctorId = doctor != null ? doctor.getId() : null;
+    }
 }
@@ -0,0 +1,87 @@
+package com.healthcare.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import java.time.LocalDateTime;
+
+// Read-only copy of an appointment moved out of the hot table, see AppointmentArchiver
+@Entity
+@Immutable
+@Table(name = "appointments_archive")
+@NamedEntityGraph(name = ArchivedAppointment.WITH_PARTICIPANTS, attributeNodes = {
+        @NamedAttributeNode("patient"),
+        @NamedAttributeNode("doctor")
+})
+public class ArchivedAppointment {
+    public static final String WITH_PARTICIPANTS = "ArchivedAppointment.withParticipants";
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id")
+    private Patient patient;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id")
+    private Doctor doctor;
+
+    private LocalDateTime appointmentDateTime;
+    private LocalDateTime endDateTime;
+    private String status;
+    private String reason;
+    private String notes;
+    private String diagnosis;
+    private String prescription;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    public ArchivedAppointment() {}
+
+    // The appointment as the API returns it; not attached, so saving it would insert a new row
+    public Appointment toAppointment() {
+        Appointment appointment = new Appointment(patient, doctor, appointmentDateTime, status);
+        appointment.setId(id);
+        appointment.setEndDateTime(endDateTime);
+        appointment.setReason(reason);
+        appointment.setNotes(notes);
+        appointment.setDiagnosis(diagnosis);
+        appointment.setPrescription(prescription);
+        appointment.setCreatedAt(createdAt);
+        appointment.setUpdatedAt(updatedAt);
+        appointment.setVersion(version);
+        return appointment;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Patient getPatient() { return patient; }
+
+    public Doctor getDoctor() { return doctor; }
+
+    public LocalDateTime getAppointmentDateTime() { return appointmentDateTime; }
+
+    public LocalDateTime getEndDateTime() { return endDateTime; }
+
+    public String getStatus() { return status; }
+
+    public String getReason() { return reason; }
+
+    public String getNotes() { return notes; }
+
+    public String getDiagnosis() { return diagnosis; }
+
+    public String getPrescription() { return prescription; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public Long getVersion() { return version; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -2,11 +2,13 @@ package com.healthcare.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "doctors")
 @PrimaryKeyJoinColumn(name = "user_id")
 public class Doctor extends User {
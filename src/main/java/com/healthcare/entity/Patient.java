@@ -1,13 +1,17 @@
 package com.healthcare.entity;
 
+import com.healthcare.service.PatientSearchIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "patients")
 @PrimaryKeyJoinColumn(name = "user_id")
+@EntityListeners(PatientSearchIndexListener.class)
 public class Patient extends User {
     
     @Size(max = 20)
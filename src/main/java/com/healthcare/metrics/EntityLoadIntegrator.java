@@ -0,0 +1,33 @@
+package com.healthcare.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Counts every entity Hibernate materializes, whether by find, query, association or batch
+ * fetch, against the current request.
+ */
+public class EntityLoadIntegrator implements org.hibernate.integrator.spi.Integrator {
+
+    private static final PostLoadEventListener COUNTER = event -> {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.entityLoaded();
+        }
+    };
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, COUNTER);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
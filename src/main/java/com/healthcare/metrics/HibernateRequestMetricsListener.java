@@ -0,0 +1,54 @@
+package com.healthcare.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Registered for every session through hibernate.session.events.auto, so Hibernate creates
+ * one instance per session. A session is used by one thread at a time, which makes the start
+ * timestamps safe to keep in plain fields.
+ */
+public class HibernateRequestMetricsListener implements SessionEventListener {
+
+    private long connectionStart;
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.connectionAcquired(System.nanoTime() - connectionStart);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.statementExecuted(System.nanoTime() - statementStart);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.batchExecuted(System.nanoTime() - batchStart);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.healthcare.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * What one request did in the database, counted on the request thread. Hibernate's session
+ * listener, load listener and statement inspector add to the instance bound to the current
+ * thread; work done on other threads (async handlers, background writers) and plain JDBC
+ * outside Hibernate are not attributed to any request.
+ */
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // IN lists differ in length with the number of ids but are the same statement
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(\\s*,\\s*\\?)+\\)");
+    // A request repeating this many distinct statements is broken in a way the budget reports anyway
+    private static final int MAX_SHAPES = 1000;
+
+    private int statements;
+    private int batches;
+    private int entityLoads;
+    private long jdbcNanos;
+    private long connectionWaitNanos;
+    private Map<String, Integer> shapes;
+
+    private RequestMetrics() {}
+
+    static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The metrics of the request running on this thread, or null outside a request.
+     */
+    static RequestMetrics current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    void batchExecuted(long nanos) {
+        batches++;
+        jdbcNanos += nanos;
+    }
+
+    void statementPrepared(String sql) {
+        if (shapes == null) {
+            shapes = new HashMap<>();
+        }
+        String shape = PARAMETER_LIST.matcher(WHITESPACE.matcher(sql).replaceAll(" ").trim()).replaceAll("(?...)");
+        if (shapes.size() < MAX_SHAPES || shapes.containsKey(shape)) {
+            shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * The statement shape prepared most often in this request, or null when none was.
+     */
+    Map.Entry<String, Integer> mostRepeatedShape() {
+        if (shapes == null) {
+            return null;
+        }
+        return shapes.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void connectionAcquired(long nanos) {
+        connectionWaitNanos += nanos;
+    }
+
+    // Getters
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+}
@@ -0,0 +1,140 @@
+package com.healthcare.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a {@link RequestMetrics} to the request thread and, once the request is done, records
+ * what it cost in the database per controller method: statements (batches count as one), entity
+ * loads, time spent executing JDBC and time spent waiting for a connection. Runs ahead of the
+ * security filters so their lookups count too. Requests not handled by a controller are skipped.
+ *
+ * It also holds each request to a SQL budget: at most max-statements statements, and no single
+ * statement shape repeated more than max-repeats times, which is what an N+1 over a lazy
+ * association looks like. A request over budget is logged with its controller method and the
+ * most repeated statement, counted in app.request.sql.budget.exceeded, and in FAIL mode ends
+ * with a {@link SqlBudgetExceededException} so tests catch the regression. Controller methods
+ * that legitimately run many statements declare their own budget with {@link SqlBudget}.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public enum BudgetMode { OFF, LOG, FAIL }
+
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    private final MeterRegistry registry;
+    private final BudgetMode budgetMode;
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    public RequestMetricsFilter(MeterRegistry registry, BudgetMode budgetMode, int maxStatements, int maxRepeats) {
+        this.registry = registry;
+        this.budgetMode = budgetMode;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestMetrics.end();
+        }
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of(
+                    "method", request.getMethod(),
+                    "uri", pattern != null ? pattern.toString() : "UNKNOWN",
+                    "handler", handlerName(handler));
+            record(tags, metrics);
+            if (budgetMode != BudgetMode.OFF) {
+                checkBudget(handler, tags, metrics);
+            }
+        }
+    }
+
+    private void record(Tags tags, RequestMetrics metrics) {
+        DistributionSummary.builder("app.request.statements")
+                .description("JDBC statements and batches executed per request")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getStatements() + metrics.getBatches());
+        DistributionSummary.builder("app.request.entity.loads")
+                .description("Entities loaded by Hibernate per request")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getEntityLoads());
+        Timer.builder("app.request.jdbc")
+                .description("Time spent executing JDBC statements per request")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("app.request.connection.wait")
+                .description("Time spent waiting for a pooled connection per request")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getConnectionWaitNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void checkBudget(HandlerMethod handler, Tags tags, RequestMetrics metrics) {
+        SqlBudget budget = handler.getMethodAnnotation(SqlBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), SqlBudget.class);
+        }
+        int statementLimit = budget != null ? budget.maxStatements() : maxStatements;
+        int repeatLimit = budget != null ? budget.maxRepeats() : maxRepeats;
+
+        int statements = metrics.getStatements() + metrics.getBatches();
+        Map.Entry<String, Integer> repeated = metrics.mostRepeatedShape();
+        boolean overStatements = statementLimit >= 0 && statements > statementLimit;
+        boolean overRepeats = repeatLimit >= 0 && repeated != null && repeated.getValue() > repeatLimit;
+        if (!overStatements && !overRepeats) {
+            return;
+        }
+
+        Counter.builder("app.request.sql.budget.exceeded")
+                .description("Requests that ran more SQL than their budget allows")
+                .tags(tags)
+                .tag("reason", overRepeats ? "repeats" : "statements")
+                .register(registry)
+                .increment();
+
+        StringBuilder message = new StringBuilder("SQL budget exceeded by ")
+                .append(handlerName(handler)).append(": ")
+                .append(statements).append(" statements (budget ").append(statementLimit).append(")");
+        if (repeated != null) {
+            String sql = repeated.getKey();
+            message.append(", most repeated ").append(repeated.getValue()).append("x (budget ").append(repeatLimit)
+                    .append("): ").append(sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql);
+        }
+        System.out.println(message);
+        if (budgetMode == BudgetMode.FAIL) {
+            throw new SqlBudgetExceededException(message.toString());
+        }
+    }
+
+    /**
+     * Controller and method name, e.g. PatientController.getPatientById.
+     */
+    public static String handlerName(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+}
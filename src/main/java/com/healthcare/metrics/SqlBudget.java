@@ -0,0 +1,22 @@
+package com.healthcare.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the per-request SQL budget (app.sql-budget.*) for a controller method or every
+ * method of a controller, for endpoints that are meant to run many statements such as bulk
+ * writes. A negative value means no limit.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface SqlBudget {
+
+    int maxStatements() default -1;
+
+    int maxRepeats() default -1;
+}
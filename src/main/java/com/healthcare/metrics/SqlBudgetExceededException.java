@@ -0,0 +1,12 @@
+package com.healthcare.metrics;
+
+/**
+ * Thrown after a request that went over its SQL budget when app.sql-budget.mode is FAIL, so a
+ * test driving the request fails with the offending statement in the message.
+ */
+public class SqlBudgetExceededException extends IllegalStateException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.healthcare.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Sees every SQL string Hibernate prepares and counts it by shape against the current
+ * request, so a statement issued once per row of a previous result stands out. The SQL is
+ * returned unchanged.
+ */
+public class SqlShapeInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics metrics = RequestMetrics.current();
+        if (metrics != null) {
+            metrics.statementPrepared(sql);
+        }
+        return sql;
+    }
+}
@@ -1,20 +1,164 @@
 package com.healthcare.repository;
 
+import com.healthcare.dto.AgendaEntry;
+import com.healthcare.dto.AppointmentExportRow;
+import com.healthcare.dto.VersionMark;
 import com.healthcare.entity.Appointment;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    // Reads that return appointments to the API load patient and doctor with a join, see Appointment.WITH_PARTICIPANTS
+    @Override
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    List<Appointment> findAll();
+
+    @Override
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    Optional<Appointment> findById(Long id);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
     List<Appointment> findByPatient(Patient patient);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
     List<Appointment> findByDoctor(Doctor doctor);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
     List<Appointment> findByStatus(String status);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
     List<Appointment> findByAppointmentDateTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
     List<Appointment> findByDoctorAndAppointmentDateTimeBetween(Doctor doctor, LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
     List<Appointment> findByPatientAndAppointmentDateTimeBetween(Patient patient, LocalDateTime start, LocalDateTime end);
+
+    // Slot rows (id, doctor id, start, end) of appointments that still occupy the doctor's time
+    @Query("select a.id, a.doctor.id, a.appointmentDateTime, a.endDateTime from Appointment a " +
+           "where a.status is null or a.status <> 'CANCELLED'")
+    List<Object[]> findActiveSlots();
+
+    // Open-ended appointments occupy the default duration, so they overlap if they start after start - default
+    @Query("select a.id, a.doctor.id, a.appointmentDateTime, a.endDateTime from Appointment a " +
+           "where a.doctor.id = :doctorId and (a.status is null or a.status <> 'CANCELLED') " +
+           "and a.appointmentDateTime < :end " +
+           "and (a.endDateTime > :start or (a.endDateTime is null and a.appointmentDateTime > :openEndedStart)) " +
+           "order by a.appointmentDateTime")
+    List<Object[]> findActiveSlotsOverlapping(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end,
+                                              @Param("openEndedStart") LocalDateTime openEndedStart);
+
+    // Aggregates used to reconcile the dashboard counters
+    @Query("select a.status, count(a) from Appointment a group by a.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("select d.department, count(a) from Appointment a join a.doctor d group by d.department")
+    List<Object[]> countGroupedByDepartment();
+
+    @Query("select cast(a.appointmentDateTime as LocalDate), count(a) from Appointment a " +
+           "where a.status is null or a.status <> 'CANCELLED' " +
+           "group by cast(a.appointmentDateTime as LocalDate)")
+    List<Object[]> countActiveGroupedByDate();
+
+    // Keyset pages ordered by (appointmentDateTime, id); the *After variants continue from a cursor.
+    // The leading ">= :dateTime" gives the planner a plain range on the time indexes to seek from.
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    List<Appointment> findAllByOrderByAppointmentDateTimeAscIdAsc(Limit limit);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    @Query("select a from Appointment a where a.appointmentDateTime >= :dateTime and (a.appointmentDateTime > :dateTime " +
+           "or (a.appointmentDateTime = :dateTime and a.id > :id)) " +
+           "order by a.appointmentDateTime, a.id")
+    List<Appointment> findPageAfter(@Param("dateTime") LocalDateTime dateTime, @Param("id") Long id, Limit limit);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    List<Appointment> findByStatusOrderByAppointmentDateTimeAscIdAsc(String status, Limit limit);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    @Query("select a from Appointment a where a.status = :status and a.appointmentDateTime >= :dateTime " +
+           "and (a.appointmentDateTime > :dateTime " +
+           "or (a.appointmentDateTime = :dateTime and a.id > :id)) " +
+           "order by a.appointmentDateTime, a.id")
+    List<Appointment> findByStatusPageAfter(@Param("status") String status, @Param("dateTime") LocalDateTime dateTime,
+                                            @Param("id") Long id, Limit limit);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    List<Appointment> findByAppointmentDateTimeBetweenOrderByAppointmentDateTimeAscIdAsc(LocalDateTime start, LocalDateTime end, Limit limit);
+
+    @EntityGraph(Appointment.WITH_PARTICIPANTS)
+    @Query("select a from Appointment a where a.appointmentDateTime >= :dateTime and a.appointmentDateTime <= :end " +
+           "and (a.appointmentDateTime > :dateTime " +
+           "or (a.appointmentDateTime = :dateTime and a.id > :id)) " +
+           "order by a.appointmentDateTime, a.id")
+    List<Appointment> findBetweenPageAfter(@Param("end") LocalDateTime end, @Param("dateTime") LocalDateTime dateTime,
+                                           @Param("id") Long id, Limit limit);
+
+    // One doctor's appointments starting in [start, end) with the patient's name, for DoctorAgendaCache
+    @Query("select new com.healthcare.dto.AgendaEntry(a.id, a.appointmentDateTime, a.endDateTime, a.status, a.reason, " +
+           "p.id, p.firstName, p.lastName) from Appointment a join a.patient p " +
+           "where a.doctor.id = :doctorId and a.appointmentDateTime >= :start and a.appointmentDateTime < :end " +
+           "order by a.appointmentDateTime, a.id")
+    List<AgendaEntry> findAgenda(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+
+    // Oldest appointments in the status that started before the cutoff, as (id, appointmentDateTime) rows.
+    // Locked until the archiver's transaction ends, so an update cannot slip in between copy and delete.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.id, a.appointmentDateTime from Appointment a " +
+           "where a.status = :status and a.appointmentDateTime < :before " +
+           "order by a.appointmentDateTime, a.id")
+    List<Object[]> findArchivable(@Param("status") String status, @Param("before") LocalDateTime before, Limit limit);
+
+    // Export rows read through a database cursor; a null filter matches everything.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.healthcare.dto.AppointmentExportRow(a.id, p.id, p.firstName, p.lastName, " +
+           "d.id, d.firstName, d.lastName, d.department, a.appointmentDateTime, a.endDateTime, a.status, " +
+           "a.reason, a.notes, a.diagnosis, a.prescription, a.createdAt, a.updatedAt) " +
+           "from Appointment a join a.patient p join a.doctor d " +
+           "where (:doctorId is null or d.id = :doctorId) and (:patientId is null or p.id = :patientId) " +
+           "and (:status is null or a.status = :status) " +
+           "and (:start is null or a.appointmentDateTime >= :start) and (:end is null or a.appointmentDateTime <= :end) " +
+           "order by a.appointmentDateTime, a.id")
+    Stream<AppointmentExportRow> streamExportRows(@Param("doctorId") Long doctorId, @Param("patientId") Long patientId,
+                                                  @Param("status") String status, @Param("start") LocalDateTime start,
+                                                  @Param("end") LocalDateTime end);
+
+    // The response embeds both participants, so their versions are part of the tag
+    @Query("select concat(cast(a.version as String), '-', cast(p.version as String), '-', cast(d.version as String)) " +
+           "from Appointment a join a.patient p join a.doctor d where a.id = :id")
+    Optional<String> findVersionTagById(@Param("id") Long id);
+
+    @Query("select new com.healthcare.dto.VersionMark(count(a), max(a.id), sum(a.version)) from Appointment a")
+    VersionMark findVersionMark();
+
+    @Query("select new com.healthcare.dto.VersionMark(count(a), max(a.id), sum(a.version)) from Appointment a " +
+           "where a.patient.id = :patientId")
+    VersionMark findVersionMarkByPatientId(@Param("patientId") Long patientId);
+
+    @Query("select new com.healthcare.dto.VersionMark(count(a), max(a.id), sum(a.version)) from Appointment a " +
+           "where a.doctor.id = :doctorId")
+    VersionMark findVersionMarkByDoctorId(@Param("doctorId") Long doctorId);
 }
@@ -0,0 +1,131 @@
+package com.healthcare.repository;
+
+import com.healthcare.dto.AgendaEntry;
+import com.healthcare.dto.AppointmentExportRow;
+import com.healthcare.entity.ArchivedAppointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Counterparts of the AppointmentRepository read finders, for reads that reach the archive
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    @Override
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findAll();
+
+    @Override
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    Optional<ArchivedAppointment> findById(Long id);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByPatient(Patient patient);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByDoctor(Doctor doctor);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByStatus(String status);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByAppointmentDateTimeBetween(LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByDoctorAndAppointmentDateTimeBetween(Doctor doctor, LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByPatientAndAppointmentDateTimeBetween(Patient patient, LocalDateTime start, LocalDateTime end);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findAllByOrderByAppointmentDateTimeAscIdAsc(Limit limit);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    @Query("select a from ArchivedAppointment a where a.appointmentDateTime >= :dateTime and (a.appointmentDateTime > :dateTime " +
+           "or (a.appointmentDateTime = :dateTime and a.id > :id)) " +
+           "order by a.appointmentDateTime, a.id")
+    List<ArchivedAppointment> findPageAfter(@Param("dateTime") LocalDateTime dateTime, @Param("id") Long id, Limit limit);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByStatusOrderByAppointmentDateTimeAscIdAsc(String status, Limit limit);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    @Query("select a from ArchivedAppointment a where a.status = :status and a.appointmentDateTime >= :dateTime " +
+           "and (a.appointmentDateTime > :dateTime " +
+           "or (a.appointmentDateTime = :dateTime and a.id > :id)) " +
+           "order by a.appointmentDateTime, a.id")
+    List<ArchivedAppointment> findByStatusPageAfter(@Param("status") String status, @Param("dateTime") LocalDateTime dateTime,
+                                                    @Param("id") Long id, Limit limit);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    List<ArchivedAppointment> findByAppointmentDateTimeBetweenOrderByAppointmentDateTimeAscIdAsc(LocalDateTime start, LocalDateTime end, Limit limit);
+
+    @EntityGraph(ArchivedAppointment.WITH_PARTICIPANTS)
+    @Query("select a from ArchivedAppointment a where a.appointmentDateTime >= :dateTime and a.appointmentDateTime <= :end " +
+           "and (a.appointmentDateTime > :dateTime " +
+           "or (a.appointmentDateTime = :dateTime and a.id > :id)) " +
+           "order by a.appointmentDateTime, a.id")
+    List<ArchivedAppointment> findBetweenPageAfter(@Param("end") LocalDateTime end, @Param("dateTime") LocalDateTime dateTime,
+                                                   @Param("id") Long id, Limit limit);
+
+    @Query("select new com.healthcare.dto.AgendaEntry(a.id, a.appointmentDateTime, a.endDateTime, a.status, a.reason, " +
+           "p.id, p.firstName, p.lastName) from ArchivedAppointment a join a.patient p " +
+           "where a.doctor.id = :doctorId and a.appointmentDateTime >= :start and a.appointmentDateTime < :end " +
+           "order by a.appointmentDateTime, a.id")
+    List<AgendaEntry> findAgenda(@Param("doctorId") Long doctorId, @Param("start") LocalDateTime start,
+                                 @Param("end") LocalDateTime end);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.healthcare.dto.AppointmentExportRow(a.id, p.id, p.firstName, p.lastName, " +
+           "d.id, d.firstName, d.lastName, d.department, a.appointmentDateTime, a.endDateTime, a.status, " +
+           "a.reason, a.notes, a.diagnosis, a.prescription, a.createdAt, a.updatedAt) " +
+           "from ArchivedAppointment a join a.patient p join a.doctor d " +
+           "where (:doctorId is null or d.id = :doctorId) and (:patientId is null or p.id = :patientId) " +
+           "and (:status is null or a.status = :status) " +
+           "and (:start is null or a.appointmentDateTime >= :start) and (:end is null or a.appointmentDateTime <= :end) " +
+           "order by a.appointmentDateTime, a.id")
+    Stream<AppointmentExportRow> streamExportRows(@Param("doctorId") Long doctorId, @Param("patientId") Long patientId,
+                                                  @Param("status") String status, @Param("start") LocalDateTime start,
+                                                  @Param("end") LocalDateTime end);
+
+    @Query("select concat(cast(a.version as String), '-', cast(p.version as String), '-', cast(d.version as String)) " +
+           "from ArchivedAppointment a join a.patient p join a.doctor d where a.id = :id")
+    Optional<String> findVersionTagById(@Param("id") Long id);
+
+    @Query("select max(a.appointmentDateTime) from ArchivedAppointment a")
+    LocalDateTime findLatestAppointmentDateTime();
+
+    // Totals for the dashboard, which counts archived appointments too
+    @Query("select a.status, count(a) from ArchivedAppointment a group by a.status")
+    List<Object[]> countGroupedByStatus();
+
+    @Query("select d.department, count(a) from ArchivedAppointment a join a.doctor d group by d.department")
+    List<Object[]> countGroupedByDepartment();
+
+    // First half of a move; the caller deletes the same ids from appointments in the same transaction
+    @Modifying
+    @Query(value = "insert into appointments_archive (id, patient_id, doctor_id, appointment_date_time, end_date_time, " +
+                   "status, reason, notes, diagnosis, prescription, created_at, updated_at, version, archived_at) " +
+                   "select id, patient_id, doctor_id, appointment_date_time, end_date_time, status, reason, notes, " +
+                   "diagnosis, prescription, created_at, updated_at, version, :archivedAt " +
+                   "from appointments where id in (:ids)", nativeQuery = true)
+    int copyFromAppointments(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
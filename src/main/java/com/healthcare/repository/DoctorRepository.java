@@ -1,9 +1,14 @@
 package com.healthcare.repository;
 
+import com.healthcare.dto.VersionMark;
 import com.healthcare.entity.Doctor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +18,25 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
     List<Doctor> findBySpecialization(String specialization);
     List<Doctor> findByDepartment(String department);
     List<Doctor> findBySpecializationContainingIgnoreCase(String specialization);
+    List<Doctor> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Roster rows (id, first name, last name, specialization, department) without loading entities
+    @Query("select d.id, d.firstName, d.lastName, d.specialization, d.department from Doctor d")
+    List<Object[]> findRosterRows();
+
+    @Query("select d.id, day from Doctor d join d.availableDays day")
+    List<Object[]> findAvailableDayRows();
+
+    @Query("select d.id from Doctor d where d.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Row lock held until the transaction ends, taken to serialize bookings of one doctor
+    @Query(value = "select user_id from doctors where user_id = :id for update", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    @Query("select d.version from Doctor d where d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.healthcare.dto.VersionMark(count(d), max(d.id), sum(d.version)) from Doctor d")
+    VersionMark findVersionMark();
 }
@@ -1,14 +1,49 @@
 package com.healthcare.repository;
 
+import com.healthcare.dto.PatientExportRow;
+import com.healthcare.dto.VersionMark;
 import com.healthcare.entity.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByEmail(String email);
     List<Patient> findByLastNameContainingIgnoreCase(String lastName);
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Rows (id, firstName, lastName, email, phone) used to build the search index
+    @Query("select p.id, p.firstName, p.lastName, p.email, p.phone from Patient p")
+    List<Object[]> findSearchRows();
+
+    @Query("select p.id from Patient p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Export rows read through a database cursor; must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.healthcare.dto.PatientExportRow(p.id, p.username, p.email, p.firstName, p.lastName, " +
+           "p.phone, p.dateOfBirth, p.gender, p.bloodType, p.height, p.weight, p.allergies, p.medicalHistory, " +
+           "p.emergencyContactName, p.emergencyContactPhone, p.enabled, p.createdAt) " +
+           "from Patient p order by p.id")
+    Stream<PatientExportRow> streamExportRows();
+
+    @Query("select p.version from Patient p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.healthcare.dto.VersionMark(count(p), max(p.id), sum(p.version)) from Patient p")
+    VersionMark findVersionMark();
 }
@@ -1,9 +1,14 @@
 package com.healthcare.repository;
 
+import com.healthcare.dto.VersionMark;
 import com.healthcare.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    // Which of the given usernames / emails are already taken, checked for a whole import chunk at once
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Covers the patient and doctor data embedded in appointment responses
+    @Query("select new com.healthcare.dto.VersionMark(count(u), max(u.id), sum(u.version)) from User u")
+    VersionMark findVersionMark();
 }
@@ -0,0 +1,163 @@
+package com.healthcare.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of verified tokens, keyed by a SHA-256 digest of the token.
+ * A hit skips signature verification and claim decoding entirely.
+ *
+ * Revoking a user drops their cached entries and rejects every token issued
+ * to them up to that point, whether cached or not. Revocations are written to
+ * token_revocations, loaded at startup and re-read every
+ * jwt.revocation.refresh-ms, so they survive a restart and reach the other
+ * instances within that interval. Only revocations younger than the token
+ * lifetime are kept; older tokens have expired anyway.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private final boolean enabled;
+    private final long tokenLifetimeMillis;
+    private final Cache<String, Entry> cache;
+    private final JdbcTemplate jdbcTemplate;
+
+    // user id -> epoch millisecond up to which issued tokens are no longer accepted
+    private final Map<Long, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    public JwtAuthenticationCache(JdbcTemplate jdbcTemplate,
+                                  @Value("${jwt.cache.enabled:true}") boolean enabled,
+                                  @Value("${jwt.cache.max-size:10000}") long maxSize,
+                                  @Value("${jwt.cache.ttl-seconds:300}") long ttlSeconds,
+                                  @Value("${jwt.expiration}") long expirationMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.tokenLifetimeMillis = expirationMillis;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(TimeUnit.SECONDS.toNanos(ttlSeconds)))
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-ms:30000}",
+               initialDelayString = "${jwt.revocation.refresh-ms:30000}")
+    public void loadRevocations() {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.query("select user_id, max(revoked_until) from token_revocations "
+                        + "where revoked_until >= ? group by user_id",
+                (RowCallbackHandler) row -> revokedUntil.merge(row.getLong(1), row.getLong(2), Math::max),
+                now - tokenLifetimeMillis);
+        // Revocations from other instances were merged, so the cached entries they cover go too
+        cache.asMap().values().removeIf(entry -> isRevoked(entry.userId, entry.issuedAtMillis));
+    }
+
+    public Authentication get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        String key = digest(token);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isRevoked(entry.userId, entry.issuedAtMillis)) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry.authentication;
+    }
+
+    public void put(String token, Long userId, long issuedAtMillis, Date expiresAt, Authentication authentication) {
+        if (!enabled) {
+            return;
+        }
+        cache.put(digest(token), new Entry(userId, issuedAtMillis, expiresAt.getTime(), authentication));
+    }
+
+    public boolean isRevoked(Long userId, long issuedAtMillis) {
+        Long until = revokedUntil.get(userId);
+        return until != null && issuedAtMillis <= until;
+    }
+
+    /**
+     * Call when a user is disabled, deleted or their roles change.
+     */
+    public void invalidateUser(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedUntil.put(userId, now);
+        cache.asMap().values().removeIf(entry -> entry.userId.equals(userId));
+        jdbcTemplate.update("insert into token_revocations (user_id, revoked_until) values (?, ?)", userId, now);
+
+        // Any token issued before now - lifetime has expired anyway
+        revokedUntil.values().removeIf(until -> until < now - tokenLifetimeMillis);
+        jdbcTemplate.update("delete from token_revocations where revoked_until < ?", now - tokenLifetimeMillis);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("revokedUsers", revokedUntil.size());
+        return result;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Entry(Long userId, long issuedAtMillis, long expiresAtMillis, Authentication authentication) {}
+
+    // Entries live for the configured TTL, but never past the token's own expiry
+    private record TokenExpiry(long ttlNanos) implements Expiry<String, Entry> {
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(entry.expiresAtMillis - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.healthcare.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -24,30 +32,101 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // When enabled, tokens carrying user id and roles claims are trusted without a users table lookup
+    @Value("${jwt.claims-principal.enabled:true}")
+    private boolean claimsPrincipalEnabled;
+
+    // Token authentication time by outcome: served from the cache, verified, or rejected
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer rejectedTimer;
+
+    @PostConstruct
+    public void initTimers() {
+        cachedTimer = timer("cached");
+        verifiedTimer = timer("verified");
+        rejectedTimer = timer("rejected");
+    }
+
+    private Timer timer(String result) {
+        return Timer.builder("app.jwt.authentication")
+                .description("Bearer token authentication time")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
         String jwt = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            long started = System.nanoTime();
+            Authentication authentication = authenticationCache.get(jwt);
+            Timer timer = cachedTimer;
+            if (authentication == null) {
+                authentication = authenticate(jwt);
+                timer = authentication != null ? verifiedTimer : rejectedTimer;
+            }
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (authentication != null) {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
         chain.doFilter(request, response);
     }
+
+    private Authentication authenticate(String jwt) {
+        Claims claims;
+        try {
+            // Single parse: signature, expiry and claims are all checked here
+            claims = jwtUtil.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: " + e.getMessage());
+            return null;
+        }
+
+        if (claimsPrincipalEnabled) {
+            JwtPrincipal principal = jwtUtil.toPrincipal(claims);
+            if (principal != null) {
+                long issuedAt = jwtUtil.issuedAtMillis(claims);
+                if (authenticationCache.isRevoked(principal.getId(), issuedAt)) {
+                    return null;
+                }
+                // Request details are left out so the token can be shared across requests
+                Authentication authentication = new UsernamePasswordAuthenticationToken(
+                        principal, null, principal.getAuthorities());
+                authenticationCache.put(jwt, principal.getId(), issuedAt, claims.getExpiration(), authentication);
+                return authentication;
+            }
+        }
+
+        UserDetails userDetails = loadUser(claims);
+        if (userDetails == null || !userDetails.isEnabled()) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private UserDetails loadUser(Claims claims) {
+        // Tokens issued without id/roles claims, or fast path disabled
+        try {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
 }
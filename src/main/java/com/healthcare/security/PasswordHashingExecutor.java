@@ -0,0 +1,91 @@
+package com.healthcare.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt hashing and verification off the request threads. The pool is sized to the
+ * CPU and its queue is bounded, so a login burst can only occupy these threads; once the
+ * queue is full new work is rejected straight away and the caller answers 503 instead of
+ * letting requests pile up behind the hashes.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.security.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.security.hashing.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueTimer;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        queueTimer = Timer.builder("app.password.hashing.queue")
+                .description("Time hashing work waits for a pool thread")
+                .register(meterRegistry);
+        Gauge.builder("app.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Hashing tasks waiting for a pool thread")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues the task, or throws {@link RejectedExecutionException} when the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queued = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            queueTimer.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+            return task.get();
+        }, executor);
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+}
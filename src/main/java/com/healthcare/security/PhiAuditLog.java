@@ -0,0 +1,331 @@
+package com.healthcare.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Audit trail of reads of patient data: who read which patient's record, how and when.
+ *
+ * Callers only put an entry into a bounded lock-free ring; a background thread takes the
+ * entries out in batches and writes them to the phi_access_audit table (one JDBC batch per
+ * flush) or to a daily file. A batch that fails to write is kept and retried, so entries
+ * back up in the ring rather than getting lost, and the overflow policy decides what a full
+ * ring means for the request:
+ * <ul>
+ *   <li>DROP - the entry is discarded and counted, the read goes ahead</li>
+ *   <li>BLOCK - wait up to block-timeout-ms for room, then refuse the read</li>
+ *   <li>REJECT - refuse the read straight away</li>
+ * </ul>
+ */
+@Component
+public class PhiAuditLog {
+
+    public enum Action { VIEW_PATIENT, LIST_PATIENT_APPOINTMENTS, SUBSCRIBE_PATIENT_APPOINTMENTS, SEARCH_PATIENTS }
+
+    public enum OverflowPolicy { DROP, BLOCK, REJECT }
+
+    public enum SinkType { DATABASE, FILE }
+
+    private static final int MAX_DETAIL_LENGTH = 200;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final String INSERT = "insert into phi_access_audit "
+            + "(accessed_at, user_id, username, roles, action, patient_id, detail, client_ip) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.sink:DATABASE}")
+    private SinkType sinkType;
+
+    @Value("${app.audit.directory:data/audit}")
+    private String directory;
+
+    @Value("${app.audit.buffer-size:65536}")
+    private int bufferSize;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.audit.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${app.audit.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${app.audit.block-timeout-ms:500}")
+    private long blockTimeoutMillis;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    private AuditRingBuffer<Entry> ring;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Writer thread only
+    private BufferedWriter file;
+    private LocalDate fileDate;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        ring = new AuditRingBuffer<>(bufferSize);
+        running = true;
+        writer = new Thread(this::writeLoop, "phi-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean record(Action action, Long patientId, String detail) {
+        return record(action, List.of(patientId), detail);
+    }
+
+    /**
+     * Records one entry per patient for the current user and request. Returns false when
+     * the overflow policy refuses the read; the caller must then not return the data.
+     */
+    public boolean record(Action action, Collection<Long> patientIds, String detail) {
+        if (!enabled || patientIds.isEmpty()) {
+            return true;
+        }
+        Instant now = Instant.now();
+        Long userId = null;
+        String username = null;
+        String roles = null;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+                userId = principal.getId();
+            }
+            if (authentication.getPrincipal() instanceof UserDetails user) {
+                username = user.getUsername();
+            }
+            roles = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .map(role -> role.startsWith("ROLE_") ? role.substring(5) : role)
+                    .collect(Collectors.joining(","));
+        }
+        String trimmedDetail = detail != null && detail.length() > MAX_DETAIL_LENGTH
+                ? detail.substring(0, MAX_DETAIL_LENGTH) : detail;
+        String clientIp = clientIp();
+
+        for (Long patientId : patientIds) {
+            if (!offer(new Entry(now, userId, username, roles, action, patientId, trimmedDetail, clientIp))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Latest accesses to a patient's data, newest first. Only for the database sink, and
+     * entries still waiting in the ring are not included.
+     */
+    public List<Map<String, Object>> findByPatient(Long patientId, int limit) {
+        return jdbcTemplate.query("select accessed_at, user_id, username, roles, action, detail, client_ip "
+                + "from phi_access_audit where patient_id = ? order by accessed_at desc, id desc limit ?",
+                (rs, rowNum) -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("accessedAt", rs.getTimestamp("accessed_at").toInstant());
+                    row.put("userId", rs.getObject("user_id", Long.class));
+                    row.put("username", rs.getString("username"));
+                    row.put("roles", rs.getString("roles"));
+                    row.put("action", rs.getString("action"));
+                    row.put("detail", rs.getString("detail"));
+                    row.put("clientIp", rs.getString("client_ip"));
+                    return row;
+                }, patientId, limit);
+    }
+
+    public boolean isDatabaseSink() {
+        return enabled && sinkType == SinkType.DATABASE;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (enabled) {
+            stats.put("sink", sinkType);
+            stats.put("overflowPolicy", overflowPolicy);
+            stats.put("capacity", ring.capacity());
+            stats.put("pending", ring.size());
+            stats.put("recorded", recorded.sum());
+            stats.put("written", written.sum());
+            stats.put("dropped", dropped.sum());
+            stats.put("refused", refused.sum());
+            stats.put("writeFailures", writeFailures.sum());
+        }
+        return stats;
+    }
+
+    private boolean offer(Entry entry) {
+        if (ring.offer(entry)) {
+            recorded.increment();
+            return true;
+        }
+        switch (overflowPolicy) {
+            case DROP -> {
+                dropped.increment();
+                return true;
+            }
+            case BLOCK -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (ring.offer(entry)) {
+                        recorded.increment();
+                        return true;
+                    }
+                }
+                refused.increment();
+                return false;
+            }
+            default -> {
+                refused.increment();
+                return false;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            ring.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+                continue;
+            }
+            try {
+                write(batch);
+                written.add(batch.size());
+                batch.clear();
+            } catch (IOException | RuntimeException e) {
+                writeFailures.increment();
+                System.out.println("PHI audit write of " + batch.size() + " entries failed: " + e.getMessage());
+                if (!running) {
+                    System.out.println("PHI audit shutting down, " + (batch.size() + ring.size()) + " entries not written");
+                    break;
+                }
+                // The batch is kept; meanwhile new entries wait in the ring
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MILLIS));
+            }
+        }
+        closeFile();
+    }
+
+    private void write(List<Entry> batch) throws IOException {
+        if (sinkType == SinkType.FILE) {
+            writeFile(batch);
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, entry) -> {
+            statement.setTimestamp(1, Timestamp.from(entry.accessedAt()));
+            statement.setObject(2, entry.userId());
+            statement.setString(3, entry.username());
+            statement.setString(4, entry.roles());
+            statement.setString(5, entry.action().name());
+            statement.setLong(6, entry.patientId());
+            statement.setString(7, entry.detail());
+            statement.setString(8, entry.clientIp());
+        });
+    }
+
+    // One NDJSON file per UTC day
+    private void writeFile(List<Entry> batch) throws IOException {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (file == null || !today.equals(fileDate)) {
+            closeFile();
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            file = Files.newBufferedWriter(dir.resolve("phi-access-" + today + ".ndjson"), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            fileDate = today;
+        }
+        for (Entry entry : batch) {
+            file.write(objectMapper.writeValueAsString(entry));
+            file.newLine();
+        }
+        file.flush();
+    }
+
+    private void closeFile() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                System.out.println("PHI audit file close failed: " + e.getMessage());
+            }
+            file = null;
+        }
+    }
+
+    private static String clientIp() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return null;
+    }
+
+    private record Entry(Instant accessedAt, Long userId, String username, String roles, Action action,
+                         Long patientId, String detail, String clientIp) {}
+}
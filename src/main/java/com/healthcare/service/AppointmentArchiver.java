@@ -0,0 +1,162 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.ArchivedAppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves completed and cancelled appointments older than app.archive.min-age-days from
+ * appointments to appointments_archive, oldest first, one bounded batch per transaction. The
+ * hot table, its indexes and the in-memory booking index then only grow with recent activity.
+ *
+ * Reads stay transparent: lists, lookups by id and exports also read the archive, date
+ * ranges only when they start before now minus min-age-days or at or before the newest
+ * archived appointment seen (see reachesArchive). Any instance archives only rows older than
+ * that age, so the first rule holds without knowing what the others did; the mark covers
+ * instances configured with a shorter age and is refreshed from the archive on every
+ * scheduled run. It is raised before a batch commits, so a reader never skips the archive for
+ * rows that are about to land there; readers query the hot table first and drop ids seen
+ * twice, which covers a batch committing between the two queries. Moved rows keep
+ * their id, version and content, so nothing derived from them (ETags, cached agendas) changes
+ * and no appointment events are published. Archived appointments are read-only: updates and
+ * deletes do not find them.
+ */
+@Service
+public class AppointmentArchiver {
+
+    private static final List<String> ARCHIVED_STATUSES = List.of("COMPLETED", "CANCELLED");
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.min-age-days:365}")
+    private int minAgeDays;
+
+    @Value("${app.archive.batch-size:1000}")
+    private int batchSize;
+
+    // Start time of the newest archived appointment seen, null while none has been
+    private volatile LocalDateTime latestArchived;
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunArchived;
+    private final AtomicLong totalArchived = new AtomicLong();
+
+    @PostConstruct
+    public void loadLatestArchived() {
+        LocalDateTime latest = archivedAppointmentRepository.findLatestAppointmentDateTime();
+        if (latest != null) {
+            raiseLatestArchived(latest);
+        }
+    }
+
+    /**
+     * Whether a date range starting at the given time can contain archived appointments. Null
+     * as the start means any time, which always can: another instance may have archived rows.
+     */
+    public boolean reachesArchive(LocalDateTime start) {
+        if (start == null || start.isBefore(LocalDateTime.now().minusDays(minAgeDays))) {
+            return true;
+        }
+        LocalDateTime latest = latestArchived;
+        return latest != null && !start.isAfter(latest);
+    }
+
+    /**
+     * Whether appointments in the status can be in the archive; others never reach it.
+     */
+    public boolean archives(String status) {
+        return ARCHIVED_STATUSES.contains(status);
+    }
+
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}",
+               initialDelayString = "${app.archive.interval-ms:3600000}")
+    public void scheduledArchive() {
+        loadLatestArchived();
+        if (enabled) {
+            archive();
+        }
+    }
+
+    public synchronized long archive() {
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long archived = 0;
+        for (String status : ARCHIVED_STATUSES) {
+            List<Long> moved;
+            do {
+                moved = transaction.execute(tx -> moveBatch(status, cutoff));
+                // Past bookings only matter to conflict checks on the same slot, which archived days never see
+                moved.forEach(intervalIndex::remove);
+                archived += moved.size();
+            } while (moved.size() == batchSize);
+        }
+        lastRunAt = LocalDateTime.now();
+        lastRunArchived = archived;
+        totalArchived.addAndGet(archived);
+        System.out.println("Archived " + archived + " appointments from before " + cutoff + " in "
+                + (System.currentTimeMillis() - started) + " ms");
+        return archived;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("minAgeDays", minAgeDays);
+        result.put("batchSize", batchSize);
+        result.put("latestArchived", latestArchived);
+        result.put("lastRunAt", lastRunAt);
+        result.put("lastRunArchived", lastRunArchived);
+        result.put("archivedSinceStart", totalArchived.get());
+        return result;
+    }
+
+    private List<Long> moveBatch(String status, LocalDateTime cutoff) {
+        List<Object[]> rows = appointmentRepository.findArchivable(status, cutoff, Limit.of(batchSize));
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+        }
+        // Rows are ordered by time, so the last one is the newest of the batch
+        LocalDateTime newest = (LocalDateTime) rows.get(rows.size() - 1)[1];
+        raiseLatestArchived(newest);
+        archivedAppointmentRepository.copyFromAppointments(ids, LocalDateTime.now());
+        appointmentRepository.deleteAllByIdInBatch(ids);
+        return ids;
+    }
+
+    private synchronized void raiseLatestArchived(LocalDateTime newest) {
+        if (latestArchived == null || newest.isAfter(latestArchived)) {
+            latestArchived = newest;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentBatchResult;
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.BookedSlot;
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Books many appointments in one call. All checks run over the whole batch before anything
+ * is written: patient and doctor ids are looked up with one IN query each, and slot conflicts
+ * are checked per doctor against the bookings in the window the batch covers and against the
+ * earlier items of the batch. The accepted appointments are inserted in a single transaction
+ * as JDBC batches, and every item gets its own result.
+ *
+ * The conflict check runs twice: first against the in-memory index, then inside the insert
+ * transaction against the database, after locking the rows of the batch's doctors in id order.
+ * Concurrent bookings of those doctors, single or batched, wait for the batch to commit.
+ */
+@Service
+public class AppointmentBatchService {
+
+    private static final String CANCELLED = "CANCELLED";
+    private static final String CONFLICT = "Doctor already has an appointment in this time slot";
+    // Keeps the persistence context small on large batches, a multiple of the JDBC batch size
+    private static final int FLUSH_INTERVAL = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public AppointmentBatchResult createAppointments(List<Appointment> appointments) {
+        long started = System.currentTimeMillis();
+        AppointmentBatchResult result = new AppointmentBatchResult(appointments.size());
+        List<AppointmentBatchResult.Item> items = result.getItems();
+
+        List<Integer> candidates = new ArrayList<>(appointments.size());
+        for (int i = 0; i < appointments.size(); i++) {
+            AppointmentBatchResult.Item item = new AppointmentBatchResult.Item(i);
+            items.add(item);
+            String error = prepare(appointments.get(i));
+            if (error != null) {
+                item.setError(error);
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        candidates = checkReferences(appointments, candidates, items);
+        candidates = checkConflicts(appointments, candidates, items, false);
+
+        List<Integer> created = candidates.isEmpty() ? List.of() : insert(appointments, candidates, items);
+        for (int index : created) {
+            Appointment appointment = appointments.get(index);
+            items.get(index).setId(appointment.getId());
+            eventPublisher.publishEvent(AppointmentEvent.of(AppointmentEvent.Type.CREATED, appointment));
+        }
+        if (!created.isEmpty()) {
+            // One aggregate rebuild instead of a counter update per appointment
+            dashboardStatsService.reconcile();
+        }
+
+        result.setCreated(created.size());
+        result.setRejected(appointments.size() - created.size());
+        result.setDurationMillis(System.currentTimeMillis() - started);
+        System.out.println("Batch created " + result.getCreated() + " of " + result.getRequested()
+                + " appointments in " + result.getDurationMillis() + " ms");
+        return result;
+    }
+
+    // Same rules as a single booking; returns the error, or null with the appointment ready to insert
+    private String prepare(Appointment appointment) {
+        if (appointment == null) {
+            return "Appointment is required";
+        }
+        if (appointment.getPatient() == null || appointment.getPatient().getId() == null) {
+            return "Patient ID is required";
+        }
+        if (appointment.getDoctor() == null || appointment.getDoctor().getId() == null) {
+            return "Doctor ID is required";
+        }
+        if (appointment.getAppointmentDateTime() == null) {
+            return "Appointment date and time is required";
+        }
+        if (appointment.getEndDateTime() != null
+                && !appointment.getEndDateTime().isAfter(appointment.getAppointmentDateTime())) {
+            return "End date and time must be after the start";
+        }
+        appointment.setId(null);
+        appointment.setVersion(null);
+        if (appointment.getStatus() == null) {
+            appointment.setStatus("SCHEDULED");
+        }
+        for (ConstraintViolation<Appointment> violation : validator.validate(appointment)) {
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        return null;
+    }
+
+    private List<Integer> checkReferences(List<Appointment> appointments, List<Integer> candidates,
+                                          List<AppointmentBatchResult.Item> items) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<Long> patients = new HashSet<>(patientRepository.findExistingIds(candidates.stream()
+                .map(i -> appointments.get(i).getPatient().getId()).collect(Collectors.toSet())));
+        Set<Long> doctors = new HashSet<>(doctorRepository.findExistingIds(candidates.stream()
+                .map(i -> appointments.get(i).getDoctor().getId()).collect(Collectors.toSet())));
+
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (int index : candidates) {
+            Appointment appointment = appointments.get(index);
+            if (!patients.contains(appointment.getPatient().getId())) {
+                items.get(index).setError("Patient not found: " + appointment.getPatient().getId());
+            } else if (!doctors.contains(appointment.getDoctor().getId())) {
+                items.get(index).setError("Doctor not found: " + appointment.getDoctor().getId());
+            } else {
+                accepted.add(index);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Per doctor, the existing bookings are fetched once for the span of the batch's items.
+     * Items are taken in request order, so of two overlapping items the earlier one wins.
+     * Cancelled items never conflict.
+     */
+    private List<Integer> checkConflicts(List<Appointment> appointments, List<Integer> candidates,
+                                         List<AppointmentBatchResult.Item> items, boolean database) {
+        Map<Long, List<Integer>> byDoctor = candidates.stream().collect(Collectors.groupingBy(
+                i -> appointments.get(i).getDoctor().getId(), LinkedHashMap::new, Collectors.toList()));
+
+        Set<Integer> rejected = new HashSet<>();
+        for (Map.Entry<Long, List<Integer>> entry : byDoctor.entrySet()) {
+            List<Integer> active = entry.getValue().stream()
+                    .filter(i -> !CANCELLED.equals(appointments.get(i).getStatus()))
+                    .toList();
+            if (active.isEmpty()) {
+                continue;
+            }
+            LocalDateTime from = active.stream().map(i -> appointments.get(i).getAppointmentDateTime())
+                    .min(LocalDateTime::compareTo).get();
+            LocalDateTime to = active.stream().map(i -> endOf(appointments.get(i)))
+                    .max(LocalDateTime::compareTo).get();
+            ExistingBookings existing = new ExistingBookings(database
+                    ? intervalIndex.findBookedSlotsInDatabase(entry.getKey(), from, to)
+                    : intervalIndex.findBookedSlots(entry.getKey(), from, to));
+
+            // Accepted items of this doctor by start; they never overlap each other
+            TreeMap<LocalDateTime, Integer> taken = new TreeMap<>();
+            for (int index : active) {
+                LocalDateTime start = appointments.get(index).getAppointmentDateTime();
+                LocalDateTime end = endOf(appointments.get(index));
+                Map.Entry<LocalDateTime, Integer> before = taken.floorEntry(start);
+                Map.Entry<LocalDateTime, Integer> after = taken.higherEntry(start);
+
+                String error = null;
+                if (existing.overlaps(start, end)) {
+                    error = CONFLICT;
+                } else if (before != null && endOf(appointments.get(before.getValue())).isAfter(start)) {
+                    error = "Overlaps item " + before.getValue() + " of this batch";
+                } else if (after != null && after.getKey().isBefore(end)) {
+                    error = "Overlaps item " + after.getValue() + " of this batch";
+                }
+
+                if (error != null) {
+                    items.get(index).setError(error);
+                    rejected.add(index);
+                } else {
+                    taken.put(start, index);
+                }
+            }
+        }
+        return candidates.stream().filter(i -> !rejected.contains(i)).toList();
+    }
+
+    // Returns the inserted items, or none when the transaction failed
+    private List<Integer> insert(List<Appointment> appointments, List<Integer> candidates,
+                                 List<AppointmentBatchResult.Item> items) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            return transaction.execute(status -> {
+                candidates.stream().map(i -> appointments.get(i).getDoctor().getId())
+                        .distinct().sorted().forEach(doctorRepository::lockById);
+                List<Integer> accepted = checkConflicts(appointments, candidates, items, true);
+                persistAll(accepted.stream().map(appointments::get).toList());
+                return accepted;
+            });
+        } catch (RuntimeException e) {
+            String message = "Not saved, the batch failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (int index : candidates) {
+                if (items.get(index).getError() == null) {
+                    items.get(index).setError(message);
+                }
+            }
+            return List.of();
+        }
+    }
+
+    private void persistAll(List<Appointment> appointments) {
+        int pending = 0;
+        for (Appointment appointment : appointments) {
+            // Existence was checked up front, so references are enough and nothing is loaded
+            appointment.setPatient(entityManager.getReference(Patient.class, appointment.getPatient().getId()));
+            appointment.setDoctor(entityManager.getReference(Doctor.class, appointment.getDoctor().getId()));
+            entityManager.persist(appointment);
+            if (++pending == FLUSH_INTERVAL) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private LocalDateTime endOf(Appointment appointment) {
+        return appointment.getEndDateTime() != null
+                ? appointment.getEndDateTime()
+                : appointment.getAppointmentDateTime().plus(intervalIndex.getDefaultDuration());
+    }
+
+    // Existing bookings may overlap each other, so overlap is decided with the running maximum end
+    private static class ExistingBookings {
+        private final LocalDateTime[] starts;
+        private final LocalDateTime[] maxEnds;
+
+        ExistingBookings(List<BookedSlot> slots) {
+            List<BookedSlot> sorted = new ArrayList<>(slots);
+            sorted.sort((a, b) -> a.getStart().compareTo(b.getStart()));
+            starts = new LocalDateTime[sorted.size()];
+            maxEnds = new LocalDateTime[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                starts[i] = sorted.get(i).getStart();
+                LocalDateTime end = sorted.get(i).getEnd();
+                maxEnds[i] = i > 0 && maxEnds[i - 1].isAfter(end) ? maxEnds[i - 1] : end;
+            }
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            // Bookings starting before the end, found by binary search
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid].isBefore(end)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low > 0 && maxEnds[low - 1].isAfter(start);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentChange;
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.ChangeLogPage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of committed appointment changes, kept in memory-mapped segment files so
+ * downstream reporting and replication can follow changes by offset instead of polling the
+ * table. Offsets number the changes from 0; a segment file is named after its first offset
+ * and a new one is started when the current one is full.
+ *
+ * Events are queued by the after-commit listener and written by a single thread, so the
+ * request path only pays for the enqueue. Writes go to the mapping and reach the disk when
+ * the OS flushes it, or when a segment is closed or the application stops; a crash of the
+ * machine can lose the most recent changes, which a reader detects as a gap at the end.
+ *
+ * Record layout (big-endian), with Long.MIN_VALUE for missing values:
+ * <pre>
+ *   int    body length
+ *   int    CRC32C of the body
+ *   long   offset
+ *   long   logged at (epoch millis)
+ *   byte   type (AppointmentEvent.Type ordinal)
+ *   long   appointment id, patient id, doctor id
+ *   long   start and end (wall-clock time as UTC epoch millis)
+ *   long   version
+ *   short  status length, followed by the status in UTF-8
+ * </pre>
+ * A zero length marks the end of the written part of a segment. On startup the last segment
+ * is scanned and a torn or corrupt record at its end is discarded.
+ */
+@Component
+public class AppointmentChangeLog {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+    private static final int FIXED_BODY_SIZE = 67;
+    // Every n-th offset is indexed to its position, so a read seeks instead of scanning the segment
+    private static final int INDEX_INTERVAL = 1024;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final AppointmentEvent.Type[] TYPES = AppointmentEvent.Type.values();
+
+    @Value("${app.change-log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.change-log.directory:data/changelog}")
+    private String directory;
+
+    @Value("${app.change-log.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${app.change-log.max-segments:0}")
+    private int maxSegments;
+
+    @Value("${app.change-log.queue-capacity:65536}")
+    private int queueCapacity;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private BlockingQueue<AppointmentEvent> pending;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Records below this offset are completely written; readers never look past it
+    private volatile long nextOffset;
+
+    // Writer thread only
+    private Segment active;
+    private int writePosition;
+    private final CRC32C writeCrc = new CRC32C();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path path = files.get(i);
+            String name = path.getFileName().toString();
+            long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(baseOffset, openSegment(baseOffset, path, i == files.size() - 1));
+        }
+        if (segments.isEmpty()) {
+            roll();
+        } else {
+            recover(segments.lastEntry().getValue());
+        }
+
+        pending = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "appointment-change-log");
+        writer.setDaemon(true);
+        writer.start();
+        System.out.println("Appointment change log opened at " + dir.toAbsolutePath() + ", next offset " + nextOffset);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Only blocks when the writer is far behind
+            pending.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Up to limit changes from the given offset on. An offset older than the retained
+     * segments starts at the oldest change still kept.
+     */
+    public ChangeLogPage read(long fromOffset, int limit) {
+        long end = nextOffset;
+        List<AppointmentChange> changes = new ArrayList<>(Math.min(limit, 1024));
+        long next = fromOffset;
+
+        Map.Entry<Long, Segment> entry = segments.floorEntry(fromOffset);
+        if (entry == null) {
+            entry = segments.firstEntry();
+        }
+        while (entry != null && changes.size() < limit && next < end) {
+            Segment segment = entry.getValue();
+            MappedByteBuffer buffer = segment.buffer;
+            int position = startPosition(segment, next);
+            while (changes.size() < limit) {
+                int recordEnd = validRecordEnd(buffer, position);
+                if (recordEnd < 0) {
+                    break;
+                }
+                long offset = buffer.getLong(position + HEADER_SIZE);
+                if (offset >= end) {
+                    break;
+                }
+                if (offset >= next) {
+                    changes.add(decode(buffer, position));
+                    next = offset + 1;
+                }
+                position = recordEnd;
+            }
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return new ChangeLogPage(changes, Math.max(next, fromOffset), end);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        if (enabled) {
+            stats.put("directory", Paths.get(directory).toAbsolutePath().toString());
+            stats.put("segments", segments.size());
+            stats.put("firstOffset", segments.isEmpty() ? 0 : segments.firstKey());
+            stats.put("endOffset", nextOffset);
+            stats.put("pending", pending.size());
+        }
+        return stats;
+    }
+
+    private void writeLoop() {
+        while (running || !pending.isEmpty()) {
+            try {
+                AppointmentEvent event = pending.poll(200, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    append(event);
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Appointment change log write failed: " + e.getMessage());
+            }
+        }
+        active.buffer.force();
+    }
+
+    private void append(AppointmentEvent event) throws IOException {
+        byte[] status = event.getStatus() != null ? event.getStatus().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int bodyLength = FIXED_BODY_SIZE + status.length;
+        // Leaves room for the zero length that ends the segment
+        if (writePosition + HEADER_SIZE + bodyLength + 4 > active.buffer.capacity()) {
+            roll();
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        long offset = nextOffset;
+        int body = writePosition + HEADER_SIZE;
+        buffer.putLong(body, offset);
+        buffer.putLong(body + 8, System.currentTimeMillis());
+        buffer.put(body + 16, (byte) event.getType().ordinal());
+        buffer.putLong(body + 17, orNone(event.getAppointmentId()));
+        buffer.putLong(body + 25, orNone(event.getPatientId()));
+        buffer.putLong(body + 33, orNone(event.getDoctorId()));
+        buffer.putLong(body + 41, epochMillis(event.getAppointmentDateTime()));
+        buffer.putLong(body + 49, epochMillis(event.getEndDateTime()));
+        buffer.putLong(body + 57, orNone(event.getVersion()));
+        buffer.putShort(body + 65, (short) status.length);
+        buffer.put(body + FIXED_BODY_SIZE, status);
+
+        writeCrc.reset();
+        writeCrc.update(buffer.slice(body, bodyLength));
+        buffer.putInt(writePosition + 4, (int) writeCrc.getValue());
+        buffer.putInt(writePosition, bodyLength);
+
+        if (offset % INDEX_INTERVAL == 0) {
+            active.index.put(offset, writePosition);
+        }
+        writePosition = body + bodyLength;
+        nextOffset = offset + 1;
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.buffer.force();
+        }
+        long baseOffset = nextOffset;
+        Path path = Paths.get(directory).resolve(String.format("%020d", baseOffset) + SEGMENT_SUFFIX);
+        Segment segment = openSegment(baseOffset, path, true);
+        segment.indexed = true;
+        segments.put(baseOffset, segment);
+        active = segment;
+        writePosition = 0;
+
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            // Readers still holding the old mapping can finish, the file is only unlinked
+            Files.deleteIfExists(segments.pollFirstEntry().getValue().path);
+        }
+    }
+
+    private Segment openSegment(long baseOffset, Path path, boolean writable) throws IOException {
+        if (!writable) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return new Segment(baseOffset, path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = Math.max(channel.size(), (long) segmentSizeMb * 1024 * 1024);
+            return new Segment(baseOffset, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    // Finds the end of the last segment and carries on writing there
+    private void recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        long offset = segment.baseOffset;
+        int position = 0;
+        int recordEnd;
+        while ((recordEnd = validRecordEnd(buffer, position)) >= 0 && buffer.getLong(position + HEADER_SIZE) == offset) {
+            if (offset % INDEX_INTERVAL == 0) {
+                segment.index.put(offset, position);
+            }
+            offset++;
+            position = recordEnd;
+        }
+        if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            System.out.println("Appointment change log: discarding a torn record at offset " + offset);
+            // Everything after the last complete record was zero, except what the torn write left
+            int end = Math.min(buffer.capacity(), position + HEADER_SIZE + FIXED_BODY_SIZE + Short.MAX_VALUE);
+            for (int i = position; i < end; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+        segment.indexed = true;
+        active = segment;
+        writePosition = position;
+        nextOffset = offset;
+    }
+
+    private int startPosition(Segment segment, long offset) {
+        if (!segment.indexed) {
+            indexClosedSegment(segment);
+        }
+        Map.Entry<Long, Integer> entry = segment.index.floorEntry(offset);
+        return entry != null ? entry.getValue() : 0;
+    }
+
+    private static synchronized void indexClosedSegment(Segment segment) {
+        if (segment.indexed) {
+            return;
+        }
+        int position = 0;
+        int recordEnd;
+        while ((recordEnd = validRecordEnd(segment.buffer, position)) >= 0) {
+            long offset = segment.buffer.getLong(position + HEADER_SIZE);
+            if (offset % INDEX_INTERVAL == 0) {
+                segment.index.put(offset, position);
+            }
+            position = recordEnd;
+        }
+        segment.indexed = true;
+    }
+
+    // Position after the record, or -1 at the end of the written data or a bad record
+    private static int validRecordEnd(MappedByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > buffer.capacity()) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length < FIXED_BODY_SIZE || length > buffer.capacity() - position - HEADER_SIZE) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + HEADER_SIZE, length));
+        if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+            return -1;
+        }
+        return position + HEADER_SIZE + length;
+    }
+
+    private static AppointmentChange decode(MappedByteBuffer buffer, int position) {
+        int body = position + HEADER_SIZE;
+        AppointmentChange change = new AppointmentChange();
+        change.setOffset(buffer.getLong(body));
+        change.setLoggedAt(Instant.ofEpochMilli(buffer.getLong(body + 8)));
+        change.setType(TYPES[buffer.get(body + 16)]);
+        change.setAppointmentId(orNull(buffer.getLong(body + 17)));
+        change.setPatientId(orNull(buffer.getLong(body + 25)));
+        change.setDoctorId(orNull(buffer.getLong(body + 33)));
+        change.setAppointmentDateTime(dateTime(buffer.getLong(body + 41)));
+        change.setEndDateTime(dateTime(buffer.getLong(body + 49)));
+        change.setVersion(orNull(buffer.getLong(body + 57)));
+        int statusLength = buffer.getShort(body + 65);
+        if (statusLength > 0) {
+            byte[] status = new byte[statusLength];
+            buffer.get(body + FIXED_BODY_SIZE, status);
+            change.setStatus(new String(status, StandardCharsets.UTF_8));
+        }
+        return change;
+    }
+
+    private static long orNone(Long value) {
+        return value != null ? value : NONE;
+    }
+
+    private static Long orNull(long value) {
+        return value != NONE ? value : null;
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NONE;
+    }
+
+    private static LocalDateTime dateTime(long epochMillis) {
+        return epochMillis != NONE ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC) : null;
+    }
+
+    private static final class Segment {
+        private final long baseOffset;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        // Sparse offset to position index, see INDEX_INTERVAL
+        private final ConcurrentSkipListMap<Long, Integer> index = new ConcurrentSkipListMap<>();
+        private volatile boolean indexed;
+
+        private Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.healthcare.service;
+
+/**
+ * Thrown by AppointmentService.bookAppointment when the doctor already has an active booking
+ * overlapping the appointment; the booking transaction is rolled back and nothing is written.
+ */
+public class AppointmentConflictException extends IllegalStateException {
+
+    public AppointmentConflictException() {
+        super("Doctor already has an appointment in this time slot");
+    }
+}
@@ -0,0 +1,321 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.AppointmentEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Server-sent event feed of appointment changes, one topic per doctor and per patient.
+ *
+ * A subscription is an async servlet request, so an idle connection holds no thread. Events
+ * are serialized once and queued per subscriber; a small shared pool writes the queues out,
+ * at most one task per subscriber at a time. The publishing thread never writes to a socket.
+ * A subscriber whose queue fills up is disconnected instead of buffering without bound; the
+ * client reconnects and reloads what it shows.
+ *
+ * Writes block, so a client that stops reading would hold a sender thread until the
+ * container's write timeout. A watchdog disconnects a subscriber whose send has run longer
+ * than the send timeout and lends the pool a thread until that send returns, so the other
+ * subscribers keep the full pool. At most sender-threads threads are lent at a time.
+ *
+ * Events are published after the transaction that made the change commits.
+ */
+@Component
+public class AppointmentEventBroadcaster {
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> CONNECTED =
+            SseEmitter.event().comment("connected").build();
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> KEEP_ALIVE =
+            SseEmitter.event().comment("keep-alive").build();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.appointments.events.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${app.appointments.events.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.appointments.events.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${app.appointments.events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.appointments.events.keep-alive-seconds:25}")
+    private long keepAliveSeconds;
+
+    @Value("${app.appointments.events.send-timeout-seconds:5}")
+    private long sendTimeoutSeconds;
+
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong disconnectedSlow = new AtomicLong();
+    private final AtomicLong disconnectedStalled = new AtomicLong();
+    private final AtomicInteger lentSenders = new AtomicInteger();
+
+    private ThreadPoolExecutor senders;
+    private ScheduledExecutorService keepAlive;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "appointment-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Unbounded, but each subscriber has at most one drain task queued
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        keepAlive = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        keepAlive.scheduleAtFixedRate(() -> forEachSubscriber(subscriber -> subscriber.offer(KEEP_ALIVE)),
+                keepAliveSeconds, keepAliveSeconds, TimeUnit.SECONDS);
+        keepAlive.scheduleWithFixedDelay(this::disconnectStalled, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        keepAlive.shutdownNow();
+        senders.shutdownNow();
+        forEachSubscriber(subscriber -> subscriber.emitter.complete());
+    }
+
+    public SseEmitter subscribeDoctor(Long doctorId) {
+        return subscribe("doctor:" + doctorId);
+    }
+
+    public SseEmitter subscribePatient(Long patientId) {
+        return subscribe("patient:" + patientId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> message;
+        try {
+            message = SseEmitter.event()
+                    .id(Long.toString(eventIds.incrementAndGet()))
+                    .name("appointment")
+                    .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        publish("doctor:" + event.getDoctorId(), message);
+        publish("patient:" + event.getPatientId(), message);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriberCount.get());
+        stats.put("topics", topics.size());
+        stats.put("eventsPublished", eventIds.get());
+        stats.put("disconnectedSlow", disconnectedSlow.get());
+        stats.put("disconnectedStalled", disconnectedStalled.get());
+        stats.put("lentSenders", lentSenders.get());
+        stats.put("pendingSends", senders.getQueue().size());
+        return stats;
+    }
+
+    /**
+     * Throws {@link RejectedExecutionException} when the subscriber limit is reached.
+     */
+    private SseEmitter subscribe(String topic) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new RejectedExecutionException("Too many event subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(topic, emitter);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(error -> subscriber.remove());
+        // Sent before the emitter is returned, so the request thread writes it and commits the
+        // headers; a first write from a sender thread would race the security filters' header writes
+        try {
+            emitter.send(CONNECTED);
+        } catch (IOException e) {
+            subscriber.remove();
+            throw new UncheckedIOException(e);
+        }
+        // Added inside compute, so it cannot land in a set that remove() is dropping
+        topics.compute(topic, (key, subscribers) -> {
+            Set<Subscriber> result = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        return emitter;
+    }
+
+    private void publish(String topic, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    // Runs on the keep-alive thread, which must not block: the emitter is completed by the
+    // sender once the stalled write returns, since complete() waits for it
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        forEachSubscriber(subscriber -> {
+            long started = subscriber.sendStarted.get();
+            if (started == IDLE || now - started < TimeUnit.SECONDS.toNanos(sendTimeoutSeconds)) {
+                return;
+            }
+            boolean lend = lentSenders.incrementAndGet() <= senderThreads;
+            if (lend) {
+                resizeSenders(1);
+            } else {
+                lentSenders.decrementAndGet();
+            }
+            // Set first, so the sender sends nothing more even if this write returns right now
+            subscriber.stalled = true;
+            if (!subscriber.sendStarted.compareAndSet(started, lend ? STALLED_LENT : STALLED) && lend) {
+                returnSender();
+            }
+            disconnectedStalled.incrementAndGet();
+            subscriber.remove();
+        });
+    }
+
+    private void returnSender() {
+        resizeSenders(-1);
+        lentSenders.decrementAndGet();
+    }
+
+    // Maximum first when growing and last when shrinking, so it never drops below the core size
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            if (delta > 0) {
+                senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+                senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+            } else {
+                senders.setCorePoolSize(senders.getCorePoolSize() + delta);
+                senders.setMaximumPoolSize(senders.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        for (Set<Subscriber> subscribers : topics.values()) {
+            subscribers.forEach(action);
+        }
+    }
+
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MAX_VALUE - 1;
+    private static final long STALLED_LENT = Long.MAX_VALUE;
+
+    private class Subscriber {
+        private final String topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile boolean stalled;
+        // nanoTime when the send in progress started, IDLE, or a STALLED state set by the watchdog
+        private final AtomicLong sendStarted = new AtomicLong(IDLE);
+
+        Subscriber(String topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            if (removed.get()) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                // Completed by the sender, the emitter may be blocked in a write right now
+                overflowed = true;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    Set<ResponseBodyEmitter.DataWithMediaType> message;
+                    while (!overflowed && !stalled && (message = queue.poll()) != null) {
+                        send(message);
+                    }
+                    if (overflowed) {
+                        disconnectedSlow.incrementAndGet();
+                    }
+                    if (overflowed || stalled) {
+                        remove();
+                        emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away or the emitter already completed
+                    remove();
+                }
+                draining.set(false);
+                // An offer between the last poll and the reset above found draining still set
+            } while (!removed.get() && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void send(Set<ResponseBodyEmitter.DataWithMediaType> message) throws IOException {
+            sendStarted.set(System.nanoTime());
+            try {
+                emitter.send(message);
+            } finally {
+                if (sendStarted.getAndSet(IDLE) == STALLED_LENT) {
+                    returnSender();
+                }
+            }
+        }
+
+        void remove() {
+            if (removed.compareAndSet(false, true)) {
+                queue.clear();
+                subscriberCount.decrementAndGet();
+                topics.computeIfPresent(topic, (key, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.BookedSlot;
+import com.healthcare.entity.Appointment;
+import com.healthcare.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of booked [start, end) intervals per doctor, for appointments that
+ * are not cancelled. Each doctor's bookings sit in a skip list ordered by start time.
+ * The longest booking seen bounds how far back an overlapping interval can start, so an
+ * overlap query is one O(log n) seek plus a short scan, and reads never take a lock.
+ *
+ * The index is loaded once the application is ready and kept current by
+ * {@link AppointmentService} as changes commit; until then lookups fall back to the database.
+ */
+@Component
+public class AppointmentIntervalIndex {
+
+    private static final String CANCELLED = "CANCELLED";
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${app.appointments.default-duration-minutes:30}")
+    private long defaultDurationMinutes;
+
+    @Value("${app.appointments.interval-index.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Long, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<Long, BookedSlot> slotsByAppointment = new ConcurrentHashMap<>();
+
+    // Appointments deleted while the warm-up query was running must not be re-added by it
+    private final Set<Long> removedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmingUp;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        warmingUp = true;
+        List<Object[]> rows = appointmentRepository.findActiveSlots();
+        for (Object[] row : rows) {
+            BookedSlot slot = toSlot(row);
+            if (!removedDuringWarmUp.contains(slot.getAppointmentId())
+                    && slotsByAppointment.putIfAbsent(slot.getAppointmentId(), slot) == null) {
+                scheduleOf(slot.getDoctorId()).add(slot);
+            }
+        }
+        warmingUp = false;
+        removedDuringWarmUp.clear();
+        ready = true;
+        System.out.println("Appointment interval index loaded with " + slotsByAppointment.size() + " bookings");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Duration getDefaultDuration() {
+        return Duration.ofMinutes(defaultDurationMinutes);
+    }
+
+    public void update(Appointment appointment) {
+        update(appointment.getId(), appointment.getDoctor() != null ? appointment.getDoctor().getId() : null,
+                appointment.getAppointmentDateTime(), appointment.getEndDateTime(), appointment.getStatus());
+    }
+
+    public void update(AppointmentEvent event) {
+        update(event.getAppointmentId(), event.getDoctorId(), event.getAppointmentDateTime(),
+                event.getEndDateTime(), event.getStatus());
+    }
+
+    private void update(Long appointmentId, Long doctorId, LocalDateTime start, LocalDateTime end, String status) {
+        remove(appointmentId);
+        if (doctorId == null || start == null || CANCELLED.equals(status)) {
+            return;
+        }
+        BookedSlot slot = toSlot(appointmentId, doctorId, start, end);
+        slotsByAppointment.put(slot.getAppointmentId(), slot);
+        scheduleOf(slot.getDoctorId()).add(slot);
+    }
+
+    public void remove(Long appointmentId) {
+        if (warmingUp) {
+            removedDuringWarmUp.add(appointmentId);
+        }
+        BookedSlot slot = slotsByAppointment.remove(appointmentId);
+        if (slot != null) {
+            scheduleOf(slot.getDoctorId()).remove(slot);
+        }
+    }
+
+    /**
+     * Bookings of the doctor that overlap [start, end), ordered by start time.
+     * Served from memory once loaded, from the database before that.
+     */
+    public List<BookedSlot> findBookedSlots(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        if (ready) {
+            return findOverlapping(doctorId, start, end);
+        }
+        return findBookedSlotsInDatabase(doctorId, start, end);
+    }
+
+    public BookedSlot getSlot(Long appointmentId) {
+        return appointmentId != null ? slotsByAppointment.get(appointmentId) : null;
+    }
+
+    /**
+     * The booking as the appointment was last read from or written to the database, or null
+     * when it was not booked then. Unlike getSlot this does not need the index to be loaded.
+     */
+    public BookedSlot persistedSlot(Appointment appointment) {
+        if (appointment.getId() == null || appointment.getPersistedDoctorId() == null
+                || appointment.getPersistedAppointmentDateTime() == null
+                || CANCELLED.equals(appointment.getPersistedStatus())) {
+            return null;
+        }
+        return toSlot(appointment.getId(), appointment.getPersistedDoctorId(),
+                appointment.getPersistedAppointmentDateTime(), appointment.getPersistedEndDateTime());
+    }
+
+    // Same answers as the in-memory lookup
+    public List<BookedSlot> findBookedSlotsInDatabase(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime openEndedStart = start.minusMinutes(defaultDurationMinutes);
+        return appointmentRepository.findActiveSlotsOverlapping(doctorId, start, end, openEndedStart).stream()
+                .map(this::toSlot)
+                .toList();
+    }
+
+    private List<BookedSlot> findOverlapping(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return List.of();
+        }
+        return schedule.overlapping(start, end);
+    }
+
+    private BookedSlot toSlot(Object[] row) {
+        return toSlot((Long) row[0], (Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]);
+    }
+
+    private BookedSlot toSlot(Long appointmentId, Long doctorId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime effectiveEnd = end != null ? end : start.plusMinutes(defaultDurationMinutes);
+        return new BookedSlot(appointmentId, doctorId, start, effectiveEnd);
+    }
+
+    private DoctorSchedule scheduleOf(Long doctorId) {
+        return schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule());
+    }
+
+    private record SlotKey(LocalDateTime start, long appointmentId) implements Comparable<SlotKey> {
+        @Override
+        public int compareTo(SlotKey other) {
+            int byStart = start.compareTo(other.start);
+            return byStart != 0 ? byStart : Long.compare(appointmentId, other.appointmentId);
+        }
+    }
+
+    private static class DoctorSchedule {
+        private final ConcurrentSkipListMap<SlotKey, BookedSlot> byStart = new ConcurrentSkipListMap<>();
+        // Only ever grows; a stale larger value just widens the scan a little
+        private final AtomicLong maxDurationSeconds = new AtomicLong();
+
+        void add(BookedSlot slot) {
+            long seconds = Duration.between(slot.getStart(), slot.getEnd()).getSeconds();
+            maxDurationSeconds.accumulateAndGet(seconds, Math::max);
+            byStart.put(keyOf(slot), slot);
+        }
+
+        void remove(BookedSlot slot) {
+            byStart.remove(keyOf(slot));
+        }
+
+        List<BookedSlot> overlapping(LocalDateTime start, LocalDateTime end) {
+            // Anything starting earlier than start - longest booking has already ended
+            SlotKey from = new SlotKey(start.minusSeconds(maxDurationSeconds.get()), Long.MIN_VALUE);
+            SlotKey to = new SlotKey(end, Long.MIN_VALUE);
+            List<BookedSlot> result = new ArrayList<>();
+            for (BookedSlot slot : byStart.subMap(from, true, to, false).values()) {
+                if (slot.overlaps(start, end)) {
+                    result.add(slot);
+                }
+            }
+            return result;
+        }
+
+        private static SlotKey keyOf(BookedSlot slot) {
+            return new SlotKey(slot.getStart(), slot.getAppointmentId());
+        }
+    }
+}
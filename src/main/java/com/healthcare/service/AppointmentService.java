@@ -1,59 +1,380 @@
 package com.healthcare.service;
 
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.BookedSlot;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.entity.Appointment;
+import com.healthcare.entity.ArchivedAppointment;
 import com.healthcare.entity.Doctor;
 import com.healthcare.entity.Patient;
 import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.ArchivedAppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AppointmentService {
     
     @Autowired
     private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AppointmentArchiver archiver;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Value("${app.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:500}")
+    private int maxPageSize;
     
+    // Reads include archived appointments, see AppointmentArchiver; null as the start means any time
     public List<Appointment> getAllAppointments() {
-        return appointmentRepository.findAll();
+        List<Appointment> appointments = appointmentRepository.findAll();
+        if (!archiver.reachesArchive(null)) {
+            return appointments;
+        }
+        return withArchived(appointments, archivedAppointmentRepository.findAll(), Integer.MAX_VALUE);
+    }
+
+    public CursorPage<Appointment> getAppointmentsPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size, defaultPageSize, maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Appointment> appointments;
+        if (cursor == null) {
+            appointments = appointmentRepository.findAllByOrderByAppointmentDateTimeAscIdAsc(limit);
+            if (archiver.reachesArchive(null)) {
+                appointments = withArchived(appointments,
+                        archivedAppointmentRepository.findAllByOrderByAppointmentDateTimeAscIdAsc(limit), pageSize + 1);
+            }
+        } else {
+            Position after = Position.decode(cursor);
+            appointments = appointmentRepository.findPageAfter(after.dateTime(), after.id(), limit);
+            if (archiver.reachesArchive(after.dateTime())) {
+                appointments = withArchived(appointments, archivedAppointmentRepository
+                        .findPageAfter(after.dateTime(), after.id(), limit), pageSize + 1);
+            }
+        }
+        return CursorPage.of(appointments, pageSize, Position::encode);
+    }
+
+    public CursorPage<Appointment> getAppointmentsByStatusPage(String status, String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size, defaultPageSize, maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Appointment> appointments;
+        if (cursor == null) {
+            appointments = appointmentRepository.findByStatusOrderByAppointmentDateTimeAscIdAsc(status, limit);
+            if (archiver.archives(status) && archiver.reachesArchive(null)) {
+                appointments = withArchived(appointments, archivedAppointmentRepository
+                        .findByStatusOrderByAppointmentDateTimeAscIdAsc(status, limit), pageSize + 1);
+            }
+        } else {
+            Position after = Position.decode(cursor);
+            appointments = appointmentRepository.findByStatusPageAfter(status, after.dateTime(), after.id(), limit);
+            if (archiver.archives(status) && archiver.reachesArchive(after.dateTime())) {
+                appointments = withArchived(appointments, archivedAppointmentRepository
+                        .findByStatusPageAfter(status, after.dateTime(), after.id(), limit), pageSize + 1);
+            }
+        }
+        return CursorPage.of(appointments, pageSize, Position::encode);
+    }
+
+    public CursorPage<Appointment> getAppointmentsBetweenDatesPage(LocalDateTime start, LocalDateTime end, String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size, defaultPageSize, maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Appointment> appointments;
+        if (cursor == null) {
+            appointments = appointmentRepository.findByAppointmentDateTimeBetweenOrderByAppointmentDateTimeAscIdAsc(start, end, limit);
+            if (archiver.reachesArchive(start)) {
+                appointments = withArchived(appointments, archivedAppointmentRepository
+                        .findByAppointmentDateTimeBetweenOrderByAppointmentDateTimeAscIdAsc(start, end, limit), pageSize + 1);
+            }
+        } else {
+            Position after = Position.decode(cursor);
+            appointments = appointmentRepository.findBetweenPageAfter(end, after.dateTime(), after.id(), limit);
+            if (archiver.reachesArchive(after.dateTime())) {
+                appointments = withArchived(appointments, archivedAppointmentRepository
+                        .findBetweenPageAfter(end, after.dateTime(), after.id(), limit), pageSize + 1);
+            }
+        }
+        return CursorPage.of(appointments, pageSize, Position::encode);
     }
     
+    // ETags for conditional GETs, read without loading any appointment. List tags include the
+    // users' mark because every appointment embeds its patient and doctor.
+    public Optional<String> getAppointmentETag(Long id) {
+        Optional<String> etag = appointmentRepository.findVersionTagById(id);
+        if (etag.isPresent() || !archiver.reachesArchive(null)) {
+            return etag;
+        }
+        return archivedAppointmentRepository.findVersionTagById(id);
+    }
+
+    // Same format as AppointmentRepository.findVersionTagById
+    public String getAppointmentETag(Appointment appointment) {
+        return appointment.getVersion() + "-" + appointment.getPatient().getVersion() + "-"
+                + appointment.getDoctor().getVersion();
+    }
+
+    public String getAppointmentsETag() {
+        return appointmentRepository.findVersionMark().toETag() + "." + userRepository.findVersionMark().toETag();
+    }
+
+    public String getPatientAppointmentsETag(Long patientId) {
+        return appointmentRepository.findVersionMarkByPatientId(patientId).toETag() + "."
+                + userRepository.findVersionMark().toETag();
+    }
+
+    public String getDoctorAppointmentsETag(Long doctorId) {
+        return appointmentRepository.findVersionMarkByDoctorId(doctorId).toETag() + "."
+                + userRepository.findVersionMark().toETag();
+    }
+
+    // The appointment to change; archived appointments are read-only and not found here
     public Optional<Appointment> getAppointmentById(Long id) {
         return appointmentRepository.findById(id);
     }
+
+    // For reads: falls back to the archive, whose appointments come back detached and must not be saved
+    public Optional<Appointment> findAppointmentById(Long id) {
+        Optional<Appointment> appointment = appointmentRepository.findById(id);
+        if (appointment.isPresent() || !archiver.reachesArchive(null)) {
+            return appointment;
+        }
+        return archivedAppointmentRepository.findById(id).map(ArchivedAppointment::toAppointment);
+    }
     
     public Appointment saveAppointment(Appointment appointment) {
-        return appointmentRepository.save(appointment);
+        return save(appointment, previousState(appointment));
     }
-    
+
+    private Appointment save(Appointment appointment, PreviousState previous) {
+        boolean created = appointment.getId() == null;
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        dashboardStatsService.appointmentSaved(savedAppointment, created, previous.status(), previous.dateTime());
+        // Delivered once the surrounding transaction, if any, has committed
+        eventPublisher.publishEvent(AppointmentEvent.of(created ? AppointmentEvent.Type.CREATED : AppointmentEvent.Type.UPDATED,
+                savedAppointment, previous.dateTime(), previous.slot()));
+        return savedAppointment;
+    }
+
+    // The index and the free-slot bitmaps follow committed changes only, so a transaction that
+    // rolls back, for instance on a version check at commit, leaves neither ahead of the database
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (event.getType() == AppointmentEvent.Type.DELETED) {
+            intervalIndex.remove(event.getAppointmentId());
+        } else {
+            intervalIndex.update(event);
+        }
+        availabilityService.bookingChanged(event.getPreviousSlot(), intervalIndex.getSlot(event.getAppointmentId()));
+    }
+
+    // The appointment as it is in the database, from its persisted state rather than the index,
+    // which may be disabled or not loaded yet; detached copies carry none, the index is all there is
+    private PreviousState previousState(Appointment appointment) {
+        LocalDateTime dateTime = appointment.getPersistedAppointmentDateTime();
+        BookedSlot slot = dateTime != null
+                ? intervalIndex.persistedSlot(appointment) : intervalIndex.getSlot(appointment.getId());
+        return new PreviousState(appointment.getPersistedStatus(), dateTime, slot);
+    }
+
+    @Transactional
     public void deleteAppointment(Long id) {
-        appointmentRepository.deleteById(id);
+        appointmentRepository.findById(id).ifPresent(appointment -> {
+            appointmentRepository.delete(appointment);
+            dashboardStatsService.appointmentDeleted(appointment);
+            eventPublisher.publishEvent(AppointmentEvent.of(AppointmentEvent.Type.DELETED, appointment,
+                    appointment.getPersistedAppointmentDateTime(), intervalIndex.persistedSlot(appointment)));
+        });
+    }
+    
+    /**
+     * Saves a new or changed appointment unless it overlaps another active booking of the same
+     * doctor, in which case AppointmentConflictException rolls the transaction back. Most
+     * conflicts are turned away by the in-memory index; otherwise the doctor's row is locked
+     * and the overlap checked again in the database under that lock, so two concurrent
+     * bookings of one doctor, on this instance or another, cannot both pass the check. An end
+     * that is not after the start is rejected with IllegalArgumentException.
+     */
+    @Transactional
+    public Appointment bookAppointment(Appointment appointment) {
+        // An inverted interval would never overlap anything, in the checks below or in the index
+        if (appointment.getEndDateTime() != null && appointment.getAppointmentDateTime() != null
+                && !appointment.getEndDateTime().isAfter(appointment.getAppointmentDateTime())) {
+            throw new IllegalArgumentException("End date and time must be after the start");
+        }
+        // Before the queries below, which flush a managed appointment and so overwrite its persisted state
+        PreviousState previous = previousState(appointment);
+        if (hasConflict(appointment)) {
+            throw new AppointmentConflictException();
+        }
+        if (!"CANCELLED".equals(appointment.getStatus())) {
+            Long doctorId = appointment.getDoctor().getId();
+            doctorRepository.lockById(doctorId);
+            if (overlapsOther(appointment, intervalIndex.findBookedSlotsInDatabase(
+                    doctorId, appointment.getAppointmentDateTime(), endOf(appointment)))) {
+                throw new AppointmentConflictException();
+            }
+        }
+        return save(appointment, previous);
+    }
+
+    /**
+     * Whether the appointment's time overlaps another active booking of the same doctor.
+     * Cancelled appointments never conflict.
+     */
+    public boolean hasConflict(Appointment appointment) {
+        if ("CANCELLED".equals(appointment.getStatus())) {
+            return false;
+        }
+        return overlapsOther(appointment, getBookedSlots(appointment.getDoctor().getId(),
+                appointment.getAppointmentDateTime(), endOf(appointment)));
+    }
+
+    private LocalDateTime endOf(Appointment appointment) {
+        return appointment.getEndDateTime() != null
+                ? appointment.getEndDateTime()
+                : appointment.getAppointmentDateTime().plus(intervalIndex.getDefaultDuration());
+    }
+
+    private static boolean overlapsOther(Appointment appointment, List<BookedSlot> slots) {
+        return slots.stream().anyMatch(slot -> !slot.getAppointmentId().equals(appointment.getId()));
+    }
+
+    public List<BookedSlot> getBookedSlots(Long doctorId, LocalDateTime start, LocalDateTime end) {
+        return intervalIndex.findBookedSlots(doctorId, start, end);
     }
     
     public List<Appointment> getAppointmentsByPatient(Patient patient) {
-        return appointmentRepository.findByPatient(patient);
+        List<Appointment> appointments = appointmentRepository.findByPatient(patient);
+        if (!archiver.reachesArchive(null)) {
+            return appointments;
+        }
+        return withArchived(appointments, archivedAppointmentRepository.findByPatient(patient), Integer.MAX_VALUE);
     }
     
     public List<Appointment> getAppointmentsByDoctor(Doctor doctor) {
-        return appointmentRepository.findByDoctor(doctor);
+        List<Appointment> appointments = appointmentRepository.findByDoctor(doctor);
+        if (!archiver.reachesArchive(null)) {
+            return appointments;
+        }
+        return withArchived(appointments, archivedAppointmentRepository.findByDoctor(doctor), Integer.MAX_VALUE);
     }
     
     public List<Appointment> getAppointmentsByStatus(String status) {
-        return appointmentRepository.findByStatus(status);
+        List<Appointment> appointments = appointmentRepository.findByStatus(status);
+        if (!archiver.archives(status) || !archiver.reachesArchive(null)) {
+            return appointments;
+        }
+        return withArchived(appointments, archivedAppointmentRepository.findByStatus(status), Integer.MAX_VALUE);
     }
     
+    // Date ranges read the archive only once they reach back into it
     public List<Appointment> getAppointmentsBetweenDates(LocalDateTime start, LocalDateTime end) {
-        return appointmentRepository.findByAppointmentDateTimeBetween(start, end);
+        List<Appointment> appointments = appointmentRepository.findByAppointmentDateTimeBetween(start, end);
+        if (!archiver.reachesArchive(start)) {
+            return appointments;
+        }
+        return withArchived(appointments, archivedAppointmentRepository.findByAppointmentDateTimeBetween(start, end),
+                Integer.MAX_VALUE);
     }
     
     public List<Appointment> getDoctorAppointmentsBetweenDates(Doctor doctor, LocalDateTime start, LocalDateTime end) {
-        return appointmentRepository.findByDoctorAndAppointmentDateTimeBetween(doctor, start, end);
+        List<Appointment> appointments = appointmentRepository.findByDoctorAndAppointmentDateTimeBetween(doctor, start, end);
+        if (!archiver.reachesArchive(start)) {
+            return appointments;
+        }
+        return withArchived(appointments,
+                archivedAppointmentRepository.findByDoctorAndAppointmentDateTimeBetween(doctor, start, end), Integer.MAX_VALUE);
     }
     
     public List<Appointment> getPatientAppointmentsBetweenDates(Patient patient, LocalDateTime start, LocalDateTime end) {
-        return appointmentRepository.findByPatientAndAppointmentDateTimeBetween(patient, start, end);
+        List<Appointment> appointments = appointmentRepository.findByPatientAndAppointmentDateTimeBetween(patient, start, end);
+        if (!archiver.reachesArchive(start)) {
+            return appointments;
+        }
+        return withArchived(appointments,
+                archivedAppointmentRepository.findByPatientAndAppointmentDateTimeBetween(patient, start, end), Integer.MAX_VALUE);
+    }
+
+    // Hot rows, read first, plus archived rows not among them, ordered by (appointmentDateTime, id).
+    // An appointment archived between the two reads is in both lists and kept once.
+    private static List<Appointment> withArchived(List<Appointment> hot, List<ArchivedAppointment> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = new HashSet<>();
+        List<Appointment> merged = new ArrayList<>(hot.size() + archived.size());
+        for (Appointment appointment : hot) {
+            hotIds.add(appointment.getId());
+            merged.add(appointment);
+        }
+        for (ArchivedAppointment appointment : archived) {
+            if (!hotIds.contains(appointment.getId())) {
+                merged.add(appointment.toAppointment());
+            }
+        }
+        merged.sort(Comparator.comparing(Appointment::getAppointmentDateTime).thenComparing(Appointment::getId));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
     }
+
+    // Keyset position of the last appointment on a page
+    private record Position(LocalDateTime dateTime, Long id) {
+        static String encode(Appointment appointment) {
+            return appointment.getAppointmentDateTime() + "|" + appointment.getId();
+        }
+
+        static Position decode(String cursor) {
+            String raw = CursorPage.decodeCursor(cursor);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                return new Position(LocalDateTime.parse(raw.substring(0, separator)),
+                                    Long.parseLong(raw.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    private record PreviousState(String status, LocalDateTime dateTime, BookedSlot slot) {}
 }
@@ -0,0 +1,237 @@
+package com.healthcare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.healthcare.dto.BookedSlot;
+import com.healthcare.dto.FreeSlot;
+import com.healthcare.entity.Doctor;
+import com.healthcare.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Free-slot search across doctors. Each doctor's working day is split into fixed-size
+ * slots and the booked ones are kept as a bitmap per (doctor, date), built from the
+ * appointment interval index. Finding room for a visit of k slots is then a few bitmap
+ * ANDs per doctor-day rather than a query per doctor.
+ *
+ * Bitmaps are dropped for just the affected days whenever an appointment changes and
+ * rebuilt on the next search that needs them.
+ */
+@Service
+public class AvailabilityService {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Value("${app.availability.day-start:09:00}")
+    private LocalTime dayStart;
+
+    @Value("${app.availability.day-end:17:00}")
+    private LocalTime dayEnd;
+
+    @Value("${app.availability.slot-minutes:15}")
+    private int slotMinutes;
+
+    @Value("${app.availability.max-search-days:31}")
+    private int maxSearchDays;
+
+    private final Map<Long, RosterEntry> roster = new ConcurrentHashMap<>();
+
+    // Cached bitmaps are never mutated after being built, so they can be shared between threads
+    private final Cache<DoctorDay, BitSet> busyBitmaps = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRoster() {
+        Map<Long, Set<DayOfWeek>> days = new HashMap<>();
+        for (Object[] row : doctorRepository.findAvailableDayRows()) {
+            DayOfWeek day = parseDay((String) row[1]);
+            if (day != null) {
+                days.computeIfAbsent((Long) row[0], id -> EnumSet.noneOf(DayOfWeek.class)).add(day);
+            }
+        }
+        for (Object[] row : doctorRepository.findRosterRows()) {
+            Long id = (Long) row[0];
+            roster.put(id, new RosterEntry(id, row[1] + " " + row[2], (String) row[3], (String) row[4],
+                    days.getOrDefault(id, Set.of())));
+        }
+    }
+
+    public void doctorSaved(Doctor doctor) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (doctor.getAvailableDays() != null) {
+            for (String name : doctor.getAvailableDays()) {
+                DayOfWeek day = parseDay(name);
+                if (day != null) {
+                    days.add(day);
+                }
+            }
+        }
+        roster.put(doctor.getId(), new RosterEntry(doctor.getId(), doctor.getFirstName() + " " + doctor.getLastName(),
+                doctor.getSpecialization(), doctor.getDepartment(), days));
+    }
+
+    public void doctorRemoved(Long doctorId) {
+        roster.remove(doctorId);
+    }
+
+    /**
+     * Call with the booking before and after a change; either may be null. The cached bitmaps
+     * of the days either booking touches are dropped and rebuilt from the index on the next
+     * search. Clearing the old booking's bits in place could free slots that another booking
+     * still covers, because bitmaps do not record which booking set a bit.
+     */
+    public void bookingChanged(BookedSlot previous, BookedSlot current) {
+        invalidate(previous);
+        invalidate(current);
+    }
+
+    /**
+     * Earliest free slots of the given length across all doctors matching the filters,
+     * ordered by start time. Null filters match every doctor. A visit longer than the
+     * working day is rejected, there is never room for it.
+     */
+    public List<FreeSlot> findFreeSlots(String specialization, String department, LocalDate from, LocalDate to,
+                                        int durationMinutes, int limit) {
+        if (to.isAfter(from.plusDays(maxSearchDays - 1))) {
+            throw new IllegalArgumentException("Search range is limited to " + maxSearchDays + " days");
+        }
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        // Also keeps slotsNeeded from overflowing and within the day's bitmap
+        if (durationMinutes > slotsPerDay() * slotMinutes) {
+            throw new IllegalArgumentException("Duration must not exceed the working day of "
+                    + slotsPerDay() * slotMinutes + " minutes");
+        }
+
+        List<RosterEntry> doctors = roster.values().stream()
+                .filter(doctor -> matches(doctor.specialization(), specialization))
+                .filter(doctor -> matches(doctor.department(), department))
+                .toList();
+        int slotsNeeded = (durationMinutes + slotMinutes - 1) / slotMinutes;
+        LocalDateTime now = LocalDateTime.now();
+
+        List<FreeSlot> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to) && result.size() < limit; date = date.plusDays(1)) {
+            List<FreeSlot> sameDay = new ArrayList<>();
+            for (RosterEntry doctor : doctors) {
+                if (doctor.availableDays().isEmpty() || doctor.availableDays().contains(date.getDayOfWeek())) {
+                    collectFreeSlots(doctor, date, slotsNeeded, durationMinutes, now, sameDay);
+                }
+            }
+            // Every slot on an earlier day precedes every slot on a later one
+            sameDay.sort(Comparator.comparing(FreeSlot::getStart).thenComparing(FreeSlot::getDoctorId));
+            result.addAll(sameDay.subList(0, Math.min(sameDay.size(), limit - result.size())));
+        }
+        return result;
+    }
+
+    private void collectFreeSlots(RosterEntry doctor, LocalDate date, int slotsNeeded, int durationMinutes,
+                                  LocalDateTime now, List<FreeSlot> out) {
+        int slotsPerDay = slotsPerDay();
+        BitSet busy = busyBitmap(doctor.id(), date);
+
+        BitSet free = new BitSet(slotsPerDay);
+        free.set(0, slotsPerDay);
+        free.andNot(busy);
+
+        // Bit i of runs stays set only if slots i .. i + slotsNeeded - 1 are all free
+        BitSet runs = (BitSet) free.clone();
+        for (int shift = 1; shift < slotsNeeded; shift++) {
+            runs.and(free.get(shift, slotsPerDay));
+        }
+
+        LocalDateTime firstSlot = date.atTime(dayStart);
+        for (int i = runs.nextSetBit(0); i >= 0 && i + slotsNeeded <= slotsPerDay; i = runs.nextSetBit(i + 1)) {
+            LocalDateTime start = firstSlot.plusMinutes((long) i * slotMinutes);
+            if (start.isAfter(now)) {
+                out.add(new FreeSlot(doctor.id(), doctor.name(), doctor.specialization(), doctor.department(),
+                        start, start.plusMinutes(durationMinutes)));
+            }
+        }
+    }
+
+    private BitSet busyBitmap(Long doctorId, LocalDate date) {
+        return busyBitmaps.get(new DoctorDay(doctorId, date), key -> buildBusyBitmap(doctorId, date));
+    }
+
+    private BitSet buildBusyBitmap(Long doctorId, LocalDate date) {
+        int slotsPerDay = slotsPerDay();
+        LocalDateTime open = date.atTime(dayStart);
+        LocalDateTime close = date.atTime(dayEnd);
+
+        BitSet busy = new BitSet(slotsPerDay);
+        for (BookedSlot slot : intervalIndex.findBookedSlots(doctorId, open, close)) {
+            int first = (int) (Duration.between(open, max(slot.getStart(), open)).toMinutes() / slotMinutes);
+            // Round the end up so a partly booked slot counts as busy
+            long endMinutes = Duration.between(open, min(slot.getEnd(), close)).toMinutes();
+            int last = (int) Math.min(slotsPerDay, (endMinutes + slotMinutes - 1) / slotMinutes);
+            busy.set(first, Math.max(first, last));
+        }
+        return busy;
+    }
+
+    private void invalidate(BookedSlot slot) {
+        if (slot == null) {
+            return;
+        }
+        for (LocalDate date = slot.getStart().toLocalDate(); !date.isAfter(slot.getEnd().toLocalDate()); date = date.plusDays(1)) {
+            busyBitmaps.invalidate(new DoctorDay(slot.getDoctorId(), date));
+        }
+    }
+
+    private int slotsPerDay() {
+        return (int) (Duration.between(dayStart, dayEnd).toMinutes() / slotMinutes);
+    }
+
+    private static boolean matches(String value, String filter) {
+        return filter == null || filter.isBlank() || filter.equalsIgnoreCase(value);
+    }
+
+    private static DayOfWeek parseDay(String name) {
+        try {
+            return name != null ? DayOfWeek.valueOf(name.trim().toUpperCase(Locale.ROOT)) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private record DoctorDay(Long doctorId, LocalDate date) {}
+
+    // An empty set of available days means the doctor has not restricted their days
+    private record RosterEntry(Long id, String name, String specialization, String department,
+                               Set<DayOfWeek> availableDays) {}
+}
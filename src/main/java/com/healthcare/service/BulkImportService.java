@@ -0,0 +1,516 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.ImportResult;
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.entity.User;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.UserRepository;
+import com.healthcare.security.PasswordHashingExecutor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming import of patients, doctors and appointments from CSV (with a header row)
+ * or NDJSON. Records are read one at a time and written in chunks, each chunk in its
+ * own transaction as JDBC batch inserts, so memory use does not grow with the input.
+ *
+ * Bad records are reported with their line number and skipped. Duplicate usernames and
+ * emails and unknown patient/doctor ids are checked with one query per chunk; if a chunk
+ * still fails to write, its rows are retried one by one to pin down the offending ones.
+ * Plain passwords are hashed per chunk, after that check, in parallel on the
+ * PasswordHashingExecutor pool.
+ * Appointments are imported as history, without overlap checks.
+ */
+@Service
+public class BulkImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 300;
+    // Stands in for the hash until the chunk is hashed; never matches a password if it were stored
+    private static final String PENDING_HASH = "(pending)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private DoctorDirectoryCache doctorDirectoryCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ImportResult importPatients(InputStream in, Format format) throws IOException {
+        return importRecords("patients", in, format, new PatientRows());
+    }
+
+    public ImportResult importDoctors(InputStream in, Format format) throws IOException {
+        return importRecords("doctors", in, format, new DoctorRows());
+    }
+
+    public ImportResult importAppointments(InputStream in, Format format) throws IOException {
+        return importRecords("appointments", in, format, new AppointmentRows());
+    }
+
+    private <T> ImportResult importRecords(String entity, InputStream in, Format format, RowHandler<T> handler)
+            throws IOException {
+        long started = System.currentTimeMillis();
+        ImportResult result = new ImportResult(entity);
+        List<PendingRow<T>> chunk = new ArrayList<>(chunkSize);
+        // CSV data starts after the header line
+        long line = format == Format.CSV ? 1 : 0;
+
+        MappingIterator<Map<String, Object>> reader;
+        try {
+            reader = openReader(in, format);
+        } catch (JsonProcessingException e) {
+            reject(result, 1, "Unreadable input: " + e.getOriginalMessage());
+            return result;
+        }
+
+        try (MappingIterator<Map<String, Object>> records = reader) {
+            while (true) {
+                Map<String, Object> record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    record = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    reject(result, line + 1, "Unreadable record, import stopped here: " + e.getOriginalMessage());
+                    break;
+                }
+                line++;
+                result.setProcessed(result.getProcessed() + 1);
+
+                T row;
+                try {
+                    row = handler.toEntity(record);
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    reject(result, line, e.getMessage());
+                    continue;
+                }
+                String violation = firstViolation(row);
+                if (violation != null) {
+                    reject(result, line, violation);
+                    continue;
+                }
+
+                chunk.add(new PendingRow<>(line, record, row));
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, handler, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, handler, result);
+        }
+
+        result.getErrors().sort(Comparator.comparingLong(ImportResult.RowError::getLine));
+        if (result.getImported() > 0) {
+            // One aggregate rebuild instead of a counter update per row
+            dashboardStatsService.reconcile();
+        }
+        result.setDurationMillis(System.currentTimeMillis() - started);
+        System.out.println("Imported " + result.getImported() + " of " + result.getProcessed() + " " + entity
+                + " in " + result.getDurationMillis() + " ms");
+        return result;
+    }
+
+    private MappingIterator<Map<String, Object>> openReader(InputStream in, Format format) throws IOException {
+        if (format == Format.CSV) {
+            return CSV_MAPPER.readerForMapOf(Object.class)
+                    .with(CsvSchema.emptySchema().withHeader())
+                    .readValues(in);
+        }
+        return objectMapper.readerForMapOf(Object.class).readValues(in);
+    }
+
+    private <T> void writeChunk(List<PendingRow<T>> chunk, RowHandler<T> handler, ImportResult result) {
+        List<PendingRow<T>> accepted = handler.checkChunk(chunk, result);
+        if (accepted.isEmpty()) {
+            return;
+        }
+        handler.prepareChunk(accepted);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> persistAll(accepted.stream().map(PendingRow::entity).toList(), handler));
+            for (PendingRow<T> row : accepted) {
+                handler.committed(row.entity());
+            }
+            result.addImported(accepted.size());
+        } catch (RuntimeException e) {
+            // Rebuild each entity from its record, the failed attempt left ids and collections behind
+            for (PendingRow<T> row : accepted) {
+                T entity = handler.toEntity(row.record());
+                try {
+                    transaction.executeWithoutResult(status -> persistAll(List.of(entity), handler));
+                    handler.committed(entity);
+                    result.addImported(1);
+                } catch (RuntimeException rowFailure) {
+                    reject(result, row.line(), rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    private <T> void persistAll(List<T> entities, RowHandler<T> handler) {
+        for (T entity : entities) {
+            handler.beforePersist(entity);
+            entityManager.persist(entity);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String firstViolation(Object entity) {
+        for (ConstraintViolation<Object> violation : validator.validate(entity)) {
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        return null;
+    }
+
+    private void reject(ImportResult result, long line, String message) {
+        result.addError(line, message, maxReportedErrors);
+    }
+
+    private static String rootMessage(Throwable e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message != null && message.length() > MAX_ERROR_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_ERROR_MESSAGE_LENGTH) + "...";
+        }
+        return message;
+    }
+
+    private record PendingRow<T>(long line, Map<String, Object> record, T entity) {}
+
+    private abstract static class RowHandler<T> {
+        abstract T toEntity(Map<String, Object> record);
+
+        // Drops rows that clash with each other or with existing data, reporting them
+        List<PendingRow<T>> checkChunk(List<PendingRow<T>> chunk, ImportResult result) {
+            return chunk;
+        }
+
+        // Runs before the write transaction, on the rows checkChunk accepted
+        void prepareChunk(List<PendingRow<T>> rows) {
+        }
+
+        // Runs inside the write transaction, just before the entity is persisted
+        void beforePersist(T entity) {
+        }
+
+        void committed(T entity) {
+        }
+    }
+
+    private abstract class UserRows<T extends User> extends RowHandler<T> {
+        @Override
+        List<PendingRow<T>> checkChunk(List<PendingRow<T>> chunk, ImportResult result) {
+            Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                    chunk.stream().map(row -> row.entity().getUsername()).toList()));
+            Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(
+                    chunk.stream().map(row -> row.entity().getEmail()).toList()));
+
+            List<PendingRow<T>> accepted = new ArrayList<>(chunk.size());
+            for (PendingRow<T> row : chunk) {
+                // add() also catches duplicates within the chunk
+                if (!takenUsernames.add(row.entity().getUsername())) {
+                    reject(result, row.line(), "Username already exists: " + row.entity().getUsername());
+                } else if (!takenEmails.add(row.entity().getEmail())) {
+                    reject(result, row.line(), "Email already exists: " + row.entity().getEmail());
+                } else {
+                    accepted.add(row);
+                }
+            }
+            return accepted;
+        }
+
+        @Override
+        void prepareChunk(List<PendingRow<T>> rows) {
+            List<PendingRow<T>> plain = rows.stream()
+                    .filter(row -> PENDING_HASH.equals(row.entity().getPassword()))
+                    .toList();
+            // One task per pool thread, so an import leaves the rest of the queue to logins
+            int slices = Math.min(plain.size(), hashingExecutor.getPoolSize());
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(slices);
+            for (int i = 0; i < slices; i++) {
+                List<PendingRow<T>> slice = new ArrayList<>();
+                for (int j = i; j < plain.size(); j += slices) {
+                    slice.add(plain.get(j));
+                }
+                try {
+                    tasks.add(hashingExecutor.submit(() -> hashPasswords(slice)));
+                } catch (RejectedExecutionException e) {
+                    // Queue full of logins: hash on this thread instead of failing the import
+                    hashPasswords(slice);
+                }
+            }
+            tasks.forEach(CompletableFuture::join);
+        }
+
+        private Void hashPasswords(List<PendingRow<T>> rows) {
+            for (PendingRow<T> row : rows) {
+                String hash = passwordEncoder.encode(text(row.record(), "password"));
+                row.entity().setPassword(hash);
+                // A retry rebuilds the entity from the record, keep it from hashing again
+                row.record().remove("password");
+                row.record().put("passwordHash", hash);
+            }
+            return null;
+        }
+
+        void fillUser(User user, Map<String, Object> record) {
+            user.setUsername(required(record, "username"));
+            user.setEmail(required(record, "email"));
+            user.setFirstName(required(record, "firstName"));
+            user.setLastName(required(record, "lastName"));
+            user.setPhone(text(record, "phone"));
+            user.setPassword(passwordHash(record));
+        }
+
+        private String passwordHash(Map<String, Object> record) {
+            String hash = text(record, "passwordHash");
+            if (hash != null) {
+                if (!BCRYPT_HASH.matcher(hash).matches()) {
+                    throw new IllegalArgumentException("passwordHash is not a BCrypt hash");
+                }
+                return hash;
+            }
+            if (text(record, "password") == null) {
+                throw new IllegalArgumentException("password or passwordHash is required");
+            }
+            // Hashed in prepareChunk, once the row is known to be written
+            return PENDING_HASH;
+        }
+    }
+
+    private class PatientRows extends UserRows<Patient> {
+        @Override
+        Patient toEntity(Map<String, Object> record) {
+            Patient patient = new Patient();
+            patient.setRoles(List.of("PATIENT"));
+            fillUser(patient, record);
+            patient.setBloodType(text(record, "bloodType"));
+            patient.setHeight(parse(record, "height", Double::valueOf));
+            patient.setWeight(parse(record, "weight", Double::valueOf));
+            patient.setMedicalHistory(text(record, "medicalHistory"));
+            patient.setAllergies(text(record, "allergies"));
+            patient.setEmergencyContactName(text(record, "emergencyContactName"));
+            patient.setEmergencyContactPhone(text(record, "emergencyContactPhone"));
+            patient.setDateOfBirth(parse(record, "dateOfBirth", LocalDate::parse));
+            patient.setGender(text(record, "gender"));
+            return patient;
+        }
+    }
+
+    private class DoctorRows extends UserRows<Doctor> {
+        @Override
+        Doctor toEntity(Map<String, Object> record) {
+            Doctor doctor = new Doctor();
+            doctor.setRoles(List.of("DOCTOR"));
+            fillUser(doctor, record);
+            doctor.setSpecialization(text(record, "specialization"));
+            doctor.setLicenseNumber(text(record, "licenseNumber"));
+            doctor.setQualifications(text(record, "qualifications"));
+            doctor.setYearsOfExperience(parse(record, "yearsOfExperience", Integer::valueOf));
+            doctor.setConsultationFee(parse(record, "consultationFee", BigDecimal::new));
+            doctor.setDepartment(text(record, "department"));
+            doctor.setBio(text(record, "bio"));
+            doctor.setAvailableDays(list(record, "availableDays"));
+            return doctor;
+        }
+
+        @Override
+        void committed(Doctor doctor) {
+            availabilityService.doctorSaved(doctor);
+            doctorDirectoryCache.invalidateAll();
+        }
+    }
+
+    private class AppointmentRows extends RowHandler<Appointment> {
+        @Override
+        Appointment toEntity(Map<String, Object> record) {
+            // Id-only stubs: existence is checked per chunk, beforePersist swaps in references
+            Patient patient = new Patient();
+            patient.setId(requiredParse(record, "patientId", Long::valueOf));
+            Doctor doctor = new Doctor();
+            doctor.setId(requiredParse(record, "doctorId", Long::valueOf));
+
+            String status = text(record, "status");
+            Appointment appointment = new Appointment(patient, doctor,
+                    requiredParse(record, "appointmentDateTime", LocalDateTime::parse),
+                    status != null ? status.toUpperCase() : "SCHEDULED");
+            appointment.setEndDateTime(parse(record, "endDateTime", LocalDateTime::parse));
+            if (appointment.getEndDateTime() != null
+                    && !appointment.getEndDateTime().isAfter(appointment.getAppointmentDateTime())) {
+                throw new IllegalArgumentException("endDateTime must be after appointmentDateTime");
+            }
+            appointment.setReason(text(record, "reason"));
+            appointment.setNotes(text(record, "notes"));
+            appointment.setDiagnosis(text(record, "diagnosis"));
+            appointment.setPrescription(text(record, "prescription"));
+            return appointment;
+        }
+
+        @Override
+        List<PendingRow<Appointment>> checkChunk(List<PendingRow<Appointment>> chunk, ImportResult result) {
+            Set<Long> patients = new HashSet<>(patientRepository.findExistingIds(
+                    chunk.stream().map(row -> row.entity().getPatient().getId()).distinct().toList()));
+            Set<Long> doctors = new HashSet<>(doctorRepository.findExistingIds(
+                    chunk.stream().map(row -> row.entity().getDoctor().getId()).distinct().toList()));
+
+            List<PendingRow<Appointment>> accepted = new ArrayList<>(chunk.size());
+            for (PendingRow<Appointment> row : chunk) {
+                if (!patients.contains(row.entity().getPatient().getId())) {
+                    reject(result, row.line(), "Patient not found: " + row.entity().getPatient().getId());
+                } else if (!doctors.contains(row.entity().getDoctor().getId())) {
+                    reject(result, row.line(), "Doctor not found: " + row.entity().getDoctor().getId());
+                } else {
+                    accepted.add(row);
+                }
+            }
+            return accepted;
+        }
+
+        // Stubs have no version and would be taken for detached entities; references load nothing
+        @Override
+        void beforePersist(Appointment appointment) {
+            appointment.setPatient(entityManager.getReference(Patient.class, appointment.getPatient().getId()));
+            appointment.setDoctor(entityManager.getReference(Doctor.class, appointment.getDoctor().getId()));
+        }
+
+        @Override
+        void committed(Appointment appointment) {
+            eventPublisher.publishEvent(AppointmentEvent.of(AppointmentEvent.Type.CREATED, appointment));
+        }
+    }
+
+    private static String text(Map<String, Object> record, String field) {
+        Object value = record.get(field);
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static String required(Map<String, Object> record, String field) {
+        String value = text(record, field);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    private static <V> V parse(Map<String, Object> record, String field, Function<String, V> parser) {
+        String value = text(record, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static <V> V requiredParse(Map<String, Object> record, String field, Function<String, V> parser) {
+        V value = parse(record, field, parser);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    // JSON arrays, or a single value separated by ';' or '|' (CSV)
+    private static List<String> list(Map<String, Object> record, String field) {
+        Object value = record.get(field);
+        if (value instanceof List<?> values) {
+            return values.stream().map(Object::toString).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+        String text = text(record, field);
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(text.split("[;|]")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,175 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.DashboardStats;
+import com.healthcare.entity.Appointment;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.ArchivedAppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard counters kept up to date by the entity services on every save and delete,
+ * so reading them never touches the database. A periodic reconcile rebuilds them from
+ * aggregate queries to correct any drift (failed transactions, bulk changes, etc).
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String CANCELLED = "CANCELLED";
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    private volatile Counters counters = new Counters();
+    private volatile LocalDateTime reconciledAt;
+
+    public DashboardStats getStats() {
+        Counters current = counters;
+        AtomicLong today = current.activeByDate.get(LocalDate.now());
+        return new DashboardStats(
+                current.patients.get(),
+                current.doctors.get(),
+                current.appointments.get(),
+                today != null ? today.get() : 0,
+                snapshot(current.byStatus),
+                snapshot(current.byDepartment),
+                reconciledAt);
+    }
+
+    public void patientAdded() {
+        counters.patients.incrementAndGet();
+    }
+
+    public void patientRemoved() {
+        counters.patients.decrementAndGet();
+    }
+
+    public void doctorAdded() {
+        counters.doctors.incrementAndGet();
+    }
+
+    public void doctorRemoved() {
+        counters.doctors.decrementAndGet();
+    }
+
+    /**
+     * @param created whether the save inserted a new row
+     * @param previousStatus status before the save, null for new appointments
+     * @param previousDateTime appointment time before the save, null for new appointments
+     */
+    public void appointmentSaved(Appointment appointment, boolean created,
+                                 String previousStatus, LocalDateTime previousDateTime) {
+        Counters current = counters;
+        if (created) {
+            current.appointments.incrementAndGet();
+            add(current.byDepartment, departmentOf(appointment), 1);
+        } else if (previousDateTime != null) {
+            add(current.byStatus, previousStatus, -1);
+            addActiveDay(current, previousStatus, previousDateTime, -1);
+        } else {
+            // Detached update with no known previous state, leave it to the next reconcile
+            return;
+        }
+        add(current.byStatus, appointment.getStatus(), 1);
+        addActiveDay(current, appointment.getStatus(), appointment.getAppointmentDateTime(), 1);
+    }
+
+    public void appointmentDeleted(Appointment appointment) {
+        Counters current = counters;
+        current.appointments.decrementAndGet();
+        add(current.byStatus, appointment.getPersistedStatus(), -1);
+        add(current.byDepartment, departmentOf(appointment), -1);
+        addActiveDay(current, appointment.getPersistedStatus(), appointment.getPersistedAppointmentDateTime(), -1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Counters fresh = new Counters();
+        fresh.patients.set(patientRepository.count());
+        fresh.doctors.set(doctorRepository.count());
+        // Totals include archived appointments; per-day counts only matter for recent days, all hot
+        fresh.appointments.set(appointmentRepository.count() + archivedAppointmentRepository.count());
+        for (Object[] row : appointmentRepository.countGroupedByStatus()) {
+            add(fresh.byStatus, (String) row[0], (Long) row[1]);
+        }
+        for (Object[] row : archivedAppointmentRepository.countGroupedByStatus()) {
+            add(fresh.byStatus, (String) row[0], (Long) row[1]);
+        }
+        for (Object[] row : appointmentRepository.countGroupedByDepartment()) {
+            add(fresh.byDepartment, (String) row[0], (Long) row[1]);
+        }
+        for (Object[] row : archivedAppointmentRepository.countGroupedByDepartment()) {
+            add(fresh.byDepartment, (String) row[0], (Long) row[1]);
+        }
+        for (Object[] row : appointmentRepository.countActiveGroupedByDate()) {
+            fresh.activeByDate.put((LocalDate) row[0], new AtomicLong((Long) row[1]));
+        }
+
+        // Deltas applied while the queries ran may be lost; the next reconcile picks them up
+        counters = fresh;
+        reconciledAt = LocalDateTime.now();
+    }
+
+    private static String departmentOf(Appointment appointment) {
+        return appointment.getDoctor() != null ? appointment.getDoctor().getDepartment() : null;
+    }
+
+    private static void addActiveDay(Counters current, String status, LocalDateTime dateTime, long delta) {
+        if (dateTime != null && !CANCELLED.equals(status)) {
+            current.activeByDate.computeIfAbsent(dateTime.toLocalDate(), day -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    private static void add(Map<String, AtomicLong> counts, String key, long delta) {
+        counts.computeIfAbsent(key != null ? key : UNKNOWN, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private static Map<String, Long> snapshot(Map<String, AtomicLong> counts) {
+        Map<String, Long> result = new TreeMap<>();
+        counts.forEach((key, count) -> {
+            long value = count.get();
+            if (value > 0) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    private static class Counters {
+        final AtomicLong patients = new AtomicLong();
+        final AtomicLong doctors = new AtomicLong();
+        final AtomicLong appointments = new AtomicLong();
+        final Map<String, AtomicLong> byStatus = new ConcurrentHashMap<>();
+        final Map<String, AtomicLong> byDepartment = new ConcurrentHashMap<>();
+        // Appointments per calendar day, excluding cancelled ones
+        final Map<LocalDate, AtomicLong> activeByDate = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,160 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.healthcare.dto.AgendaEntry;
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.DoctorAgenda;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.ArchivedAppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+/**
+ * One doctor's day, kept as the JSON the agenda endpoint returns: the day's appointments in
+ * time order with the patient's name, read with a single projection query and no entities.
+ *
+ * A committed appointment change drops the day it is on and, when an update moved it, the day
+ * it came from; nothing else is touched. Caffeine makes an invalidation wait for a load of the
+ * same day that is still running, so a load that read the old data cannot outlive it. Patient
+ * name changes drop the days that show the patient.
+ */
+@Component
+public class DoctorAgendaCache {
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final AppointmentArchiver archiver;
+    private final Cache<Key, Agenda> cache;
+
+    public DoctorAgendaCache(ObjectMapper objectMapper,
+                             AppointmentRepository appointmentRepository,
+                             DoctorRepository doctorRepository,
+                             ArchivedAppointmentRepository archivedAppointmentRepository,
+                             AppointmentArchiver archiver,
+                             @Value("${app.agenda-cache.enabled:true}") boolean enabled,
+                             @Value("${app.agenda-cache.max-size:10000}") long maxSize,
+                             @Value("${app.agenda-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.archiver = archiver;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The doctor's agenda for the date, or null when there is no such doctor (not cached).
+     */
+    public Agenda get(Long doctorId, LocalDate date) {
+        Key key = new Key(doctorId, date);
+        if (!enabled) {
+            return load(key);
+        }
+        return cache.get(key, this::load);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (event.getDoctorId() == null) {
+            return;
+        }
+        invalidate(event.getDoctorId(), event.getAppointmentDateTime());
+        invalidate(event.getDoctorId(), event.getPreviousAppointmentDateTime());
+    }
+
+    // Patient writes are rare next to agenda reads, so a scan of the cached days is fine
+    public void patientChanged(Long patientId) {
+        cache.asMap().values().removeIf(agenda -> agenda.showsPatient(patientId));
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    private void invalidate(Long doctorId, LocalDateTime dateTime) {
+        if (dateTime != null) {
+            cache.invalidate(new Key(doctorId, dateTime.toLocalDate()));
+        }
+    }
+
+    private Agenda load(Key key) {
+        if (!doctorRepository.existsById(key.doctorId())) {
+            return null;
+        }
+        LocalDateTime start = key.date().atStartOfDay();
+        LocalDateTime end = key.date().plusDays(1).atStartOfDay();
+        List<AgendaEntry> entries = appointmentRepository.findAgenda(key.doctorId(), start, end);
+        if (archiver.reachesArchive(start)) {
+            // Same day either way, so archiving never changes a cached agenda
+            entries = withArchived(entries, archivedAppointmentRepository.findAgenda(key.doctorId(), start, end));
+        }
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new DoctorAgenda(key.doctorId(), key.date(), entries));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        // Derived from the content, so it stays valid across evictions and restarts
+        CRC32C checksum = new CRC32C();
+        checksum.update(body);
+        long[] patientIds = entries.stream().mapToLong(AgendaEntry::getPatientId).distinct().sorted().toArray();
+        return new Agenda(body, "agenda-" + Long.toHexString(checksum.getValue()) + "-" + body.length, patientIds);
+    }
+
+    // Hot entries first; one archived between the two reads is kept once
+    private static List<AgendaEntry> withArchived(List<AgendaEntry> hot, List<AgendaEntry> archived) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = hot.stream().map(AgendaEntry::getId).collect(Collectors.toSet());
+        List<AgendaEntry> merged = new ArrayList<>(hot);
+        archived.stream().filter(entry -> !hotIds.contains(entry.getId())).forEach(merged::add);
+        merged.sort(Comparator.comparing(AgendaEntry::getAppointmentDateTime).thenComparing(AgendaEntry::getId));
+        return merged;
+    }
+
+    private record Key(Long doctorId, LocalDate date) {}
+
+    public record Agenda(byte[] body, String etag, long[] patientIds) {
+        boolean showsPatient(Long patientId) {
+            return Arrays.binarySearch(patientIds, patientId) >= 0;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Doctor directory responses kept as serialized JSON, so a hit skips both the database
+ * and Jackson. Any doctor write invalidates everything: the directory is small and
+ * changes rarely, and per-key invalidation would have to know which lists a doctor
+ * appeared in before the change.
+ *
+ * Keys carry a generation number that is bumped on invalidation, so a load that was
+ * already running against the old data can only fill a key nobody asks for any more.
+ */
+@Component
+public class DoctorDirectoryCache {
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedJson> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public DoctorDirectoryCache(ObjectMapper objectMapper,
+                                @Value("${app.doctor-cache.enabled:true}") boolean enabled,
+                                @Value("${app.doctor-cache.max-size:1000}") long maxSize,
+                                @Value("${app.doctor-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached JSON for the key, or serializes what the loader returns.
+     * A null from the loader (e.g. unknown id) is not cached and comes back as null.
+     * The ETag is read before the data, so it can only be older than what it describes.
+     */
+    public CachedJson get(String key, Supplier<String> etag, Supplier<?> loader) {
+        if (!enabled) {
+            return load(etag, loader);
+        }
+        return cache.get(generation.get() + ":" + key, k -> load(etag, loader));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
+    private CachedJson load(Supplier<String> etag, Supplier<?> loader) {
+        String tag = etag.get();
+        Object value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new CachedJson(objectMapper.writeValueAsBytes(value), tag);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record CachedJson(byte[] body, String etag) {}
+}
@@ -1,8 +1,13 @@
 package com.healthcare.service;
 
+import com.healthcare.dto.CursorPage;
 import com.healthcare.entity.Doctor;
 import com.healthcare.repository.DoctorRepository;
+import com.healthcare.security.JwtAuthenticationCache;
+import com.healthcare.service.DoctorDirectoryCache.CachedJson;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,10 +18,70 @@ public class DoctorService {
     
     @Autowired
     private DoctorRepository doctorRepository;
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private DoctorDirectoryCache directoryCache;
+
+    @Value("${app.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:500}")
+    private int maxPageSize;
     
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
+
+    // Serialized directory lookups, served from the cache until the next doctor write
+
+    public CachedJson getAllDoctorsJson() {
+        return directoryCache.get("all", this::getDirectoryETag, doctorRepository::findAll);
+    }
+
+    public CachedJson getDoctorJsonById(Long id) {
+        return directoryCache.get("id:" + id, () -> getDoctorETag(id).orElse(null),
+                () -> doctorRepository.findById(id).orElse(null));
+    }
+
+    public CachedJson getDoctorsBySpecializationJson(String specialization) {
+        return directoryCache.get("specialization:" + specialization, this::getDirectoryETag,
+                () -> doctorRepository.findBySpecialization(specialization));
+    }
+
+    public CachedJson getDoctorsByDepartmentJson(String department) {
+        return directoryCache.get("department:" + department, this::getDirectoryETag,
+                () -> doctorRepository.findByDepartment(department));
+    }
+
+    // ETags for conditional GETs, read without loading any doctor
+    public Optional<String> getDoctorETag(Long id) {
+        return doctorRepository.findVersionById(id).map(version -> "v" + version);
+    }
+
+    public String getDoctorETag(Doctor doctor) {
+        return "v" + doctor.getVersion();
+    }
+
+    // Every directory list is tagged with the mark of the whole doctors table
+    public String getDirectoryETag() {
+        return doctorRepository.findVersionMark().toETag();
+    }
+
+    public CursorPage<Doctor> getDoctorsPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size, defaultPageSize, maxPageSize);
+        long afterId = cursor != null ? CursorPage.decodeIdCursor(cursor) : 0L;
+        List<Doctor> doctors = doctorRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(doctors, pageSize, doctor -> String.valueOf(doctor.getId()));
+    }
     
     public Optional<Doctor> getDoctorById(Long id) {
         return doctorRepository.findById(id);
@@ -27,11 +92,24 @@ public class DoctorService {
     }
     
     public Doctor saveDoctor(Doctor doctor) {
-        return doctorRepository.save(doctor);
+        boolean created = doctor.getId() == null || !doctorRepository.existsById(doctor.getId());
+        Doctor savedDoctor = doctorRepository.save(doctor);
+        if (created) {
+            dashboardStatsService.doctorAdded();
+        }
+        availabilityService.doctorSaved(savedDoctor);
+        directoryCache.invalidateAll();
+        return savedDoctor;
     }
     
     public void deleteDoctor(Long id) {
-        doctorRepository.deleteById(id);
+        if (doctorRepository.existsById(id)) {
+            doctorRepository.deleteById(id);
+            dashboardStatsService.doctorRemoved();
+        }
+        availabilityService.doctorRemoved(id);
+        authenticationCache.invalidateUser(id);
+        directoryCache.invalidateAll();
     }
     
     public List<Doctor> getDoctorsBySpecialization(String specialization) {
@@ -0,0 +1,155 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.healthcare.dto.AppointmentExportRow;
+import com.healthcare.dto.PatientExportRow;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.ArchivedAppointmentRepository;
+import com.healthcare.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Writes appointments and patients as NDJSON or CSV straight from a database cursor.
+ * Rows are read as flat projections inside a read-only transaction and written one at
+ * a time, so neither the persistence context nor the response buffer grows with the
+ * size of the export.
+ *
+ * Appointment exports include archived appointments: when the filter can reach the archive,
+ * its cursor is opened after the appointments cursor and the two time-ordered streams are
+ * merged, dropping an appointment that was archived between the two reads and so is in both.
+ */
+@Service
+public class ExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+
+    @Autowired
+    private AppointmentArchiver archiver;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    public long exportAppointments(OutputStream out, BulkImportService.Format format, Long doctorId, Long patientId,
+                                   String status, LocalDateTime start, LocalDateTime end) {
+        return readOnly().execute(tx -> {
+            try (Stream<AppointmentExportRow> rows =
+                         appointmentRepository.streamExportRows(doctorId, patientId, status, start, end)) {
+                if (!archiver.reachesArchive(start) || (status != null && !archiver.archives(status))) {
+                    return write(rows, AppointmentExportRow.class, out, format);
+                }
+                try (Stream<AppointmentExportRow> archived =
+                             archivedAppointmentRepository.streamExportRows(doctorId, patientId, status, start, end)) {
+                    return write(merge(rows, archived), AppointmentExportRow.class, out, format);
+                }
+            }
+        });
+    }
+
+    public long exportPatients(OutputStream out, BulkImportService.Format format) {
+        return readOnly().execute(tx -> {
+            try (Stream<PatientExportRow> rows = patientRepository.streamExportRows()) {
+                return write(rows, PatientExportRow.class, out, format);
+            }
+        });
+    }
+
+    // Both streams are ordered by (appointmentDateTime, id), so a copy in both comes out adjacent
+    private static Stream<AppointmentExportRow> merge(Stream<AppointmentExportRow> hot, Stream<AppointmentExportRow> archived) {
+        Comparator<AppointmentExportRow> order = Comparator.comparing(AppointmentExportRow::getAppointmentDateTime)
+                .thenComparing(AppointmentExportRow::getId);
+        Iterator<AppointmentExportRow> left = hot.iterator();
+        Iterator<AppointmentExportRow> right = archived.iterator();
+        Iterator<AppointmentExportRow> merged = new Iterator<>() {
+            private AppointmentExportRow nextLeft = left.hasNext() ? left.next() : null;
+            private AppointmentExportRow nextRight = right.hasNext() ? right.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public AppointmentExportRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int compared = nextLeft == null ? 1 : nextRight == null ? -1 : order.compare(nextLeft, nextRight);
+                AppointmentExportRow row = compared <= 0 ? nextLeft : nextRight;
+                if (compared <= 0) {
+                    nextLeft = left.hasNext() ? left.next() : null;
+                }
+                if (compared >= 0) {
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                return row;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private <T> long write(Stream<T> rows, Class<T> type, OutputStream out, BulkImportService.Format format) {
+        ObjectWriter writer = format == BulkImportService.Format.CSV
+                ? CSV_MAPPER.writer(CSV_MAPPER.schemaFor(type).withHeader())
+                : objectMapper.writerFor(type).withRootValueSeparator("\n");
+        long count = 0;
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sequence.write(iterator.next());
+                if (++count % FLUSH_EVERY == 0) {
+                    sequence.flush();
+                }
+            }
+            if (format == BulkImportService.Format.NDJSON && count > 0) {
+                sequence.flush();
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,457 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * In-memory index over patient first name, last name, email and phone. Every term is kept
+ * in a sorted dictionary, which finds exact and prefix matches directly. Name words are also
+ * padded ("  word ") and split into 3-character grams, so substring matches and anything
+ * sharing enough grams (trigram similarity) match too and small typos are tolerated. Emails
+ * and phone numbers only match exactly or by prefix: their grams are mostly the same few
+ * digits and domain letters shared by every patient. Multi-word queries require every word
+ * to match; a patient's score is the sum of the words' scores.
+ *
+ * A search only scores the candidates of the query word with the fewest, and keeps the best
+ * results in a heap of the requested size. Exact and prefix matches are tried first: once
+ * they fill the page with scores no substring or fuzzy match can reach, nothing else is
+ * looked at. Fuzzy candidates come only from the rarest grams of a word, as many as a match
+ * at the minimum similarity cannot avoid sharing; the most common grams are never walked,
+ * only probed for those candidates.
+ *
+ * Loaded once the application is ready and kept current by {@link PatientSearchIndexListener};
+ * until then searches fall back to the database.
+ */
+@Component
+public class PatientSearchIndex {
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.9;
+    private static final double SUBSTRING = 0.75;
+    // Fuzzy matches score below any substring match
+    private static final double FUZZY_WEIGHT = 0.6;
+    private static final Comparator<Hit> BEST_FIRST = Comparator.<Hit>comparingDouble(hit -> -hit.score())
+            .thenComparing(hit -> hit.entry().sortKey())
+            .thenComparing(hit -> hit.entry().id());
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Value("${app.patient-search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.patient-search.min-similarity:0.3}")
+    private double minSimilarity;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Set<Long>> dictionary = new ConcurrentSkipListMap<>();
+
+    // Patients deleted while the warm-up query was running must not be re-added by it
+    private final Set<Long> removedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmingUp;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        warmingUp = true;
+        for (Object[] row : patientRepository.findSearchRows()) {
+            Long id = (Long) row[0];
+            if (!removedDuringWarmUp.contains(id) && !entries.containsKey(id)) {
+                add(toEntry(id, (String) row[1], (String) row[2], (String) row[3], (String) row[4]));
+            }
+        }
+        warmingUp = false;
+        removedDuringWarmUp.clear();
+        ready = true;
+        System.out.println("Patient search index loaded with " + entries.size() + " patients");
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void update(Patient patient) {
+        if (patient.getId() == null) {
+            return;
+        }
+        removeEntry(patient.getId());
+        add(toEntry(patient.getId(), patient.getFirstName(), patient.getLastName(), patient.getEmail(), patient.getPhone()));
+    }
+
+    public synchronized void remove(Long patientId) {
+        if (warmingUp) {
+            removedDuringWarmUp.add(patientId);
+        }
+        removeEntry(patientId);
+    }
+
+    /**
+     * Ids of the best matches for a free-text query, best first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> words = queryWords(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Hit> hits = bestHits(fewest(words, this::exactOrPrefixIds), words, limit, false);
+        // A patient missing from these has at best a substring match for one word
+        double outsideBest = (words.size() - 1) * EXACT + SUBSTRING;
+        if (hits.size() < limit || hits.get(limit - 1).score() <= outsideBest) {
+            hits = bestHits(fewest(words, this::candidateIds), words, limit, true);
+        }
+        return hits.stream().map(hit -> hit.entry().id()).toList();
+    }
+
+    /**
+     * Ids of patients whose last name contains the given text, ignoring case, ordered by name.
+     */
+    public List<Long> findByLastNameContaining(String text) {
+        String needle = normalize(text);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+        Iterable<Entry> candidates = entries.values();
+        Set<String> needleGrams = innerGrams(needle);
+        if (!needleGrams.isEmpty()) {
+            // Every inner trigram of the needle must occur in the name, so the rarest one bounds the candidates
+            Set<Long> smallest = null;
+            for (String gram : needleGrams) {
+                Set<Long> ids = postings.getOrDefault(gram, Set.of());
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+            List<Entry> narrowed = new ArrayList<>();
+            for (Long id : smallest) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    narrowed.add(entry);
+                }
+            }
+            candidates = narrowed;
+        }
+
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (entry.lastName().contains(needle)) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(Comparator.comparing(Entry::sortKey).thenComparing(Entry::id));
+        return matches.stream().map(Entry::id).toList();
+    }
+
+    private static Collection<Long> fewest(List<String> words, Function<String, Collection<Long>> candidates) {
+        Collection<Long> fewest = null;
+        for (String word : words) {
+            Collection<Long> ids = candidates.apply(word);
+            if (fewest == null || ids.size() < fewest.size()) {
+                fewest = ids;
+            }
+        }
+        return fewest;
+    }
+
+    /**
+     * The limit best of the candidates that match every word, best first. Without fuzzy only
+     * exact and prefix matches count.
+     */
+    private List<Hit> bestHits(Collection<Long> candidates, List<String> words, int limit, boolean fuzzy) {
+        List<Set<String>> wordGrams = new ArrayList<>(words.size());
+        for (String word : words) {
+            wordGrams.add(fuzzy && !contactOnly(word) ? grams(word, true) : null);
+        }
+        PriorityQueue<Hit> worstFirst = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            double total = 0;
+            for (int i = 0; i < words.size() && total >= 0; i++) {
+                double score = score(entry, words.get(i), wordGrams.get(i));
+                total = score > 0 ? total + score : -1;
+            }
+            if (total <= 0) {
+                continue;
+            }
+            Hit hit = new Hit(entry, total);
+            if (worstFirst.size() < limit) {
+                worstFirst.add(hit);
+            } else if (BEST_FIRST.compare(hit, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(worstFirst);
+        hits.sort(BEST_FIRST);
+        return hits;
+    }
+
+    private Collection<Long> exactOrPrefixIds(String word) {
+        Collection<Set<Long>> matches = dictionary.subMap(word, true, word + Character.MAX_VALUE, true).values();
+        if (matches.size() == 1) {
+            return matches.iterator().next();
+        }
+        Set<Long> ids = new HashSet<>();
+        matches.forEach(ids::addAll);
+        return ids;
+    }
+
+    /**
+     * Every patient the word can match: exact and prefix matches, the postings of the word's
+     * rarest inner gram, which a name containing the word must have, and the patients sharing
+     * enough of its grams for a fuzzy match. A fuzzy match at minSimilarity shares at least that
+     * fraction of the word's grams, so it cannot miss all of the rarest (count - needed + 1) of
+     * them; only patients found there are counted against the common grams.
+     */
+    private Collection<Long> candidateIds(String word) {
+        if (contactOnly(word) || word.length() < 3) {
+            return exactOrPrefixIds(word);
+        }
+        Set<Long> ids = new HashSet<>(exactOrPrefixIds(word));
+        Set<Long> rarestInner = null;
+        for (String gram : innerGrams(word)) {
+            Set<Long> posting = postings.getOrDefault(gram, Set.of());
+            if (rarestInner == null || posting.size() < rarestInner.size()) {
+                rarestInner = posting;
+            }
+        }
+        if (rarestInner != null) {
+            ids.addAll(rarestInner);
+        }
+        List<Set<Long>> byRarity = new ArrayList<>();
+        for (String gram : grams(word, true)) {
+            byRarity.add(postings.getOrDefault(gram, Set.of()));
+        }
+        byRarity.sort(Comparator.comparingInt(Set::size));
+        int needed = Math.max(1, (int) Math.ceil(minSimilarity * byRarity.size() - 1e-9));
+        int rarest = byRarity.size() - needed + 1;
+        Map<Long, Integer> shared = new HashMap<>();
+        for (Set<Long> posting : byRarity.subList(0, rarest)) {
+            for (Long id : posting) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<Long, Integer> candidate : shared.entrySet()) {
+            int count = candidate.getValue();
+            for (int i = rarest; i < byRarity.size() && count < needed; i++) {
+                if (byRarity.get(i).contains(candidate.getKey())) {
+                    count++;
+                }
+            }
+            if (count >= needed) {
+                ids.add(candidate.getKey());
+            }
+        }
+        return ids;
+    }
+
+    // Best score of the word against the patient's terms, 0 when it does not match
+    private double score(Entry entry, String word, Set<String> wordGrams) {
+        double best = 0;
+        for (String contact : entry.contacts()) {
+            if (contact.equals(word)) {
+                return EXACT;
+            }
+            if (contact.startsWith(word)) {
+                best = PREFIX;
+            }
+        }
+        for (int i = 0; i < entry.terms().size(); i++) {
+            String term = entry.terms().get(i);
+            if (wordGrams != null) {
+                best = Math.max(best, score(term, entry.termGrams().get(i), word, wordGrams));
+            } else if (term.equals(word)) {
+                return EXACT;
+            } else if (term.startsWith(word)) {
+                best = PREFIX;
+            }
+        }
+        return best;
+    }
+
+    private double score(String term, Set<String> termGrams, String word, Set<String> wordGrams) {
+        if (term.equals(word)) {
+            return EXACT;
+        }
+        if (term.startsWith(word)) {
+            return PREFIX;
+        }
+        if (term.contains(word)) {
+            return SUBSTRING;
+        }
+        if (word.length() < 3) {
+            return 0;
+        }
+        int shared = 0;
+        for (String gram : wordGrams) {
+            if (termGrams.contains(gram)) {
+                shared++;
+            }
+        }
+        double similarity = (double) shared / (termGrams.size() + wordGrams.size() - shared);
+        return similarity >= minSimilarity ? FUZZY_WEIGHT * similarity : 0;
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.id(), entry);
+        for (Set<String> termGrams : entry.termGrams()) {
+            for (String gram : termGrams) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(entry.id());
+            }
+        }
+        for (String term : entry.terms()) {
+            dictionary.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+        for (String contact : entry.contacts()) {
+            dictionary.computeIfAbsent(contact, t -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        }
+    }
+
+    private void removeEntry(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (Set<String> termGrams : entry.termGrams()) {
+            for (String gram : termGrams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram, ids);
+                    }
+                }
+            }
+        }
+        for (String term : entry.terms()) {
+            removeFromDictionary(term, id);
+        }
+        for (String contact : entry.contacts()) {
+            removeFromDictionary(contact, id);
+        }
+    }
+
+    private void removeFromDictionary(String term, Long id) {
+        Set<Long> ids = dictionary.get(term);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                dictionary.remove(term, ids);
+            }
+        }
+    }
+
+    private static Entry toEntry(Long id, String firstName, String lastName, String email, String phone) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(nameWords(firstName));
+        terms.addAll(nameWords(lastName));
+        List<Set<String>> termGrams = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            termGrams.add(grams(term, true));
+        }
+        List<String> contacts = new ArrayList<>(2);
+        String normalizedEmail = normalize(email);
+        if (!normalizedEmail.isEmpty()) {
+            contacts.add(normalizedEmail);
+        }
+        String digits = phone != null ? phone.replaceAll("\\D", "") : "";
+        if (!digits.isEmpty()) {
+            contacts.add(digits);
+        }
+        String normalizedLastName = normalize(lastName);
+        return new Entry(id, List.copyOf(terms), List.copyOf(termGrams), List.copyOf(contacts), normalizedLastName,
+                normalizedLastName + " " + normalize(firstName));
+    }
+
+    private static List<String> nameWords(String name) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(name).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static List<String> queryWords(String query) {
+        List<String> words = new ArrayList<>();
+        for (String word : normalize(query).split("\\s+")) {
+            // Phone numbers are indexed as bare digits
+            String digits = word.replaceAll("[-+().]", "");
+            if (!digits.isEmpty() && digits.chars().allMatch(Character::isDigit)) {
+                word = digits;
+            }
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Phone numbers and emails, which have no trigrams to match against
+    private static boolean contactOnly(String word) {
+        return word.chars().allMatch(Character::isDigit) || word.indexOf('@') >= 0;
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Trigrams of "  text", plus those ending in the trailing pad when {@code closed}.
+     * Open grams are used to look up a query word, which may be the prefix of a longer term.
+     */
+    private static Set<String> grams(String text, boolean closed) {
+        String padded = "  " + text + (closed ? " " : "");
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Unpadded trigrams made only of letters and digits, as only those can be shared with a name word
+    private static Set<String> innerGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            String gram = text.substring(i, i + 3);
+            if (gram.codePoints().allMatch(Character::isLetterOrDigit)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    // terms are the name words and termGrams their closed grams, in the same order; contacts
+    // are the email and phone digits
+    private record Entry(Long id, List<String> terms, List<Set<String>> termGrams, List<String> contacts,
+                         String lastName, String sortKey) {}
+
+    private record Hit(Entry entry, double score) {}
+}
@@ -0,0 +1,57 @@
+package com.healthcare.service;
+
+import com.healthcare.entity.Patient;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link PatientSearchIndex} in step with patient writes. Changes made inside a
+ * transaction are applied once it commits, so a rollback never reaches the index.
+ */
+@Component
+public class PatientSearchIndexListener {
+
+    // Hibernate may create its own listener instance, so the index is shared through a static field
+    private static volatile PatientSearchIndex searchIndex;
+
+    @Autowired
+    public void setSearchIndex(PatientSearchIndex index) {
+        searchIndex = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Patient patient) {
+        PatientSearchIndex index = searchIndex;
+        if (index != null) {
+            afterCommit(() -> index.update(patient));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Patient patient) {
+        PatientSearchIndex index = searchIndex;
+        if (index != null) {
+            Long id = patient.getId();
+            afterCommit(() -> index.remove(id));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,11 +1,18 @@
 package com.healthcare.service;
 
+import com.healthcare.dto.CursorPage;
 import com.healthcare.entity.Patient;
 import com.healthcare.repository.PatientRepository;
+import com.healthcare.security.JwtAuthenticationCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -13,28 +20,110 @@ public class PatientService {
     
     @Autowired
     private PatientRepository patientRepository;
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private PatientSearchIndex searchIndex;
+
+    @Autowired
+    private DoctorAgendaCache agendaCache;
+
+    @Value("${app.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.pagination.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.patient-search.max-results:50}")
+    private int maxSearchResults;
     
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
+
+    public CursorPage<Patient> getPatientsPage(String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size, defaultPageSize, maxPageSize);
+        long afterId = cursor != null ? CursorPage.decodeIdCursor(cursor) : 0L;
+        List<Patient> patients = patientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return CursorPage.of(patients, pageSize, patient -> String.valueOf(patient.getId()));
+    }
     
     public Optional<Patient> getPatientById(Long id) {
         return patientRepository.findById(id);
     }
+
+    // ETags for conditional GETs, read without loading any patient
+    public Optional<String> getPatientETag(Long id) {
+        return patientRepository.findVersionById(id).map(version -> "v" + version);
+    }
+
+    public String getPatientETag(Patient patient) {
+        return "v" + patient.getVersion();
+    }
+
+    public String getPatientsETag() {
+        return patientRepository.findVersionMark().toETag();
+    }
     
     public Optional<Patient> getPatientByEmail(String email) {
         return patientRepository.findByEmail(email);
     }
     
     public Patient savePatient(Patient patient) {
-        return patientRepository.save(patient);
+        boolean created = patient.getId() == null || !patientRepository.existsById(patient.getId());
+        Patient savedPatient = patientRepository.save(patient);
+        if (created) {
+            dashboardStatsService.patientAdded();
+        } else {
+            agendaCache.patientChanged(savedPatient.getId());
+        }
+        return savedPatient;
     }
     
     public void deletePatient(Long id) {
-        patientRepository.deleteById(id);
+        if (patientRepository.existsById(id)) {
+            patientRepository.deleteById(id);
+            dashboardStatsService.patientRemoved();
+            agendaCache.patientChanged(id);
+        }
+        authenticationCache.invalidateUser(id);
     }
     
     public List<Patient> searchPatientsByLastName(String lastName) {
-        return patientRepository.findByLastNameContainingIgnoreCase(lastName);
+        if (!searchIndex.isReady()) {
+            return patientRepository.findByLastNameContainingIgnoreCase(lastName);
+        }
+        return loadInOrder(searchIndex.findByLastNameContaining(lastName));
+    }
+
+    // Ranked, typo-tolerant search over first name, last name, email and phone
+    public List<Patient> searchPatients(String query, Integer limit) {
+        int maxResults = CursorPage.clampSize(limit, 20, maxSearchResults);
+        if (!searchIndex.isReady()) {
+            return patientRepository.findByLastNameContainingIgnoreCase(query.trim()).stream()
+                    .limit(maxResults)
+                    .toList();
+        }
+        return loadInOrder(searchIndex.search(query, maxResults));
+    }
+
+    private List<Patient> loadInOrder(List<Long> ids) {
+        Map<Long, Patient> byId = new HashMap<>();
+        for (Patient patient : patientRepository.findAllById(ids)) {
+            byId.put(patient.getId(), patient);
+        }
+        List<Patient> patients = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Patient patient = byId.get(id);
+            if (patient != null) {
+                patients.add(patient);
+            }
+        }
+        return patients;
     }
 }
@@ -0,0 +1,130 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentExportRow;
+import com.healthcare.dto.DoctorSummary;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only queries over R2DBC for the streamed (application/x-ndjson) variants of the doctor
+ * directory and the appointment calendar. Rows are mapped straight to DTOs as the driver
+ * produces them and demand flows back from the response, so a slow client slows the query
+ * down instead of a buffer growing, and no request thread waits on the database meanwhile.
+ */
+@Service
+public class ReactiveReadService {
+
+    private static final String DOCTORS = "select u.id, u.first_name, u.last_name, u.email, u.phone, "
+            + "d.specialization, d.license_number, d.qualifications, d.years_of_experience, d.consultation_fee, "
+            + "d.department, d.bio, a.available_days "
+            + "from doctors d join users u on u.id = d.user_id "
+            + "left join doctor_availability a on a.doctor_id = d.user_id ";
+
+    private static final String APPOINTMENTS = "select a.id, a.patient_id, p.first_name as patient_first_name, "
+            + "p.last_name as patient_last_name, a.doctor_id, du.first_name as doctor_first_name, "
+            + "du.last_name as doctor_last_name, d.department, a.appointment_date_time, a.end_date_time, a.status, "
+            + "a.reason, a.notes, a.diagnosis, a.prescription, a.created_at, a.updated_at "
+            + "from %s a join users p on p.id = a.patient_id "
+            + "join users du on du.id = a.doctor_id join doctors d on d.user_id = a.doctor_id "
+            + "where a.appointment_date_time between :start and :end ";
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    @Autowired
+    private AppointmentArchiver archiver;
+
+    public Flux<DoctorSummary> findDoctors() {
+        return doctors(reactiveDatabaseClient.sql(DOCTORS + "order by u.id"));
+    }
+
+    // Same matching as the blocking search: specialization contains the text, ignoring case
+    public Flux<DoctorSummary> searchDoctorsBySpecialization(String specialization) {
+        return doctors(reactiveDatabaseClient
+                .sql(DOCTORS + "where lower(d.specialization) like :pattern escape '\\' order by u.id")
+                .bind("pattern", "%" + escapeLike(specialization.toLowerCase()) + "%"));
+    }
+
+    // One statement over both tables when the range reaches the archive, so a row being archived is seen once
+    public Flux<AppointmentExportRow> findAppointmentsBetween(LocalDateTime start, LocalDateTime end) {
+        String sql = APPOINTMENTS.formatted("appointments");
+        if (archiver.reachesArchive(start)) {
+            sql += "union all " + APPOINTMENTS.formatted("appointments_archive");
+        }
+        return reactiveDatabaseClient
+                .sql(sql + "order by appointment_date_time, id")
+                .bind("start", start)
+                .bind("end", end)
+                .map(ReactiveReadService::toAppointment)
+                .all();
+    }
+
+    // One row per available day, ordered by doctor, so consecutive rows are folded into one doctor
+    private static Flux<DoctorSummary> doctors(DatabaseClient.GenericExecuteSpec query) {
+        return query.map(ReactiveReadService::toDoctor)
+                .all()
+                .bufferUntilChanged(DoctorSummary::getId)
+                .map(ReactiveReadService::merge);
+    }
+
+    private static DoctorSummary toDoctor(Readable row) {
+        DoctorSummary doctor = new DoctorSummary();
+        doctor.setId(row.get("id", Long.class));
+        doctor.setFirstName(row.get("first_name", String.class));
+        doctor.setLastName(row.get("last_name", String.class));
+        doctor.setEmail(row.get("email", String.class));
+        doctor.setPhone(row.get("phone", String.class));
+        doctor.setSpecialization(row.get("specialization", String.class));
+        doctor.setLicenseNumber(row.get("license_number", String.class));
+        doctor.setQualifications(row.get("qualifications", String.class));
+        doctor.setYearsOfExperience(row.get("years_of_experience", Integer.class));
+        doctor.setConsultationFee(row.get("consultation_fee", BigDecimal.class));
+        doctor.setDepartment(row.get("department", String.class));
+        doctor.setBio(row.get("bio", String.class));
+        String day = row.get("available_days", String.class);
+        if (day != null) {
+            doctor.getAvailableDays().add(day);
+        }
+        return doctor;
+    }
+
+    private static DoctorSummary merge(List<DoctorSummary> rows) {
+        DoctorSummary doctor = rows.get(0);
+        for (int i = 1; i < rows.size(); i++) {
+            doctor.getAvailableDays().addAll(rows.get(i).getAvailableDays());
+        }
+        return doctor;
+    }
+
+    private static AppointmentExportRow toAppointment(Readable row) {
+        return new AppointmentExportRow(
+                row.get("id", Long.class),
+                row.get("patient_id", Long.class),
+                row.get("patient_first_name", String.class),
+                row.get("patient_last_name", String.class),
+                row.get("doctor_id", Long.class),
+                row.get("doctor_first_name", String.class),
+                row.get("doctor_last_name", String.class),
+                row.get("department", String.class),
+                row.get("appointment_date_time", LocalDateTime.class),
+                row.get("end_date_time", LocalDateTime.class),
+                row.get("status", String.class),
+                row.get("reason", String.class),
+                row.get("notes", String.class),
+                row.get("diagnosis", String.class),
+                row.get("prescription", String.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class));
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
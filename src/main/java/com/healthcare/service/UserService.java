@@ -2,9 +2,11 @@ package com.healthcare.service;
 
 import com.healthcare.entity.User;
 import com.healthcare.repository.UserRepository;
+import com.healthcare.security.JwtAuthenticationCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +15,13 @@ public class UserService {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    // Doctors are users too, so user writes can change what the directory shows
+    @Autowired
+    private DoctorDirectoryCache doctorDirectoryCache;
     
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -27,11 +36,42 @@ public class UserService {
     }
     
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        doctorDirectoryCache.invalidateAll();
+        return savedUser;
     }
     
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
+        authenticationCache.invalidateUser(id);
+        doctorDirectoryCache.invalidateAll();
+    }
+
+    public Optional<User> setUserEnabled(Long id, boolean enabled) {
+        return userRepository.findById(id).map(user -> {
+            if (user.isEnabled() == enabled) {
+                return user;
+            }
+            user.setEnabled(enabled);
+            User savedUser = userRepository.save(user);
+            // Re-enabling also revokes, so tokens from before the disable stay dead
+            authenticationCache.invalidateUser(id);
+            doctorDirectoryCache.invalidateAll();
+            return savedUser;
+        });
+    }
+
+    public Optional<User> updateUserRoles(Long id, List<String> roles) {
+        return userRepository.findById(id).map(user -> {
+            if (user.getRoles().equals(roles)) {
+                return user;
+            }
+            user.setRoles(new ArrayList<>(roles));
+            User savedUser = userRepository.save(user);
+            authenticationCache.invalidateUser(id);
+            doctorDirectoryCache.invalidateAll();
+            return savedUser;
+        });
     }
     
     public boolean existsByUsername(String username) {
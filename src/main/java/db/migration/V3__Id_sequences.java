@@ -0,0 +1,39 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Sequences for user and appointment ids, so Hibernate can allocate ids in blocks and
+ * batch inserts (identity columns force one round trip per row). Written in Java because
+ * each sequence has to start above the ids already in the table, and H2 and PostgreSQL
+ * only accept a literal start value.
+ */
+public class V3__Id_sequences extends BaseJavaMigration {
+
+    // Must match allocationSize on the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            createSequence(statement, "users_seq", "users");
+            createSequence(statement, "appointments_seq", "appointments");
+        }
+    }
+
+    private static void createSequence(Statement statement, String sequence, String table) throws SQLException {
+        long maxId;
+        try (ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        // Hibernate's pooled optimizer uses the block of ids below each value it reads
+        long start = maxId + 1 + ALLOCATION_SIZE;
+        statement.execute("create sequence " + sequence + " start with " + start + " increment by " + ALLOCATION_SIZE);
+    }
+}
@@ -0,0 +1,75 @@
+-- Baseline schema matching the JPA entities. Written to run unchanged on H2 and PostgreSQL.
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(50) not null,
+    password varchar(100) not null,
+    email varchar(100) not null,
+    first_name varchar(50) not null,
+    last_name varchar(50) not null,
+    phone varchar(20),
+    enabled boolean not null,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    constraint pk_users primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role varchar(255),
+    constraint fk_user_roles_user foreign key (user_id) references users (id)
+);
+
+create table patients (
+    user_id bigint not null,
+    blood_type varchar(20),
+    height float(53),
+    weight float(53),
+    medical_history varchar(500),
+    allergies varchar(500),
+    emergency_contact_name varchar(255),
+    emergency_contact_phone varchar(255),
+    date_of_birth date,
+    gender varchar(10),
+    constraint pk_patients primary key (user_id),
+    constraint fk_patients_user foreign key (user_id) references users (id)
+);
+
+create table doctors (
+    user_id bigint not null,
+    specialization varchar(50),
+    license_number varchar(20),
+    qualifications varchar(1000),
+    years_of_experience integer,
+    consultation_fee numeric(38,2),
+    department varchar(50),
+    bio varchar(500),
+    constraint pk_doctors primary key (user_id),
+    constraint fk_doctors_user foreign key (user_id) references users (id)
+);
+
+create table doctor_availability (
+    doctor_id bigint not null,
+    available_days varchar(255),
+    constraint fk_doctor_availability_doctor foreign key (doctor_id) references doctors (user_id)
+);
+
+create table appointments (
+    id bigint generated by default as identity,
+    patient_id bigint not null,
+    doctor_id bigint not null,
+    appointment_date_time timestamp(6) not null,
+    end_date_time timestamp(6),
+    status varchar(20),
+    reason varchar(500),
+    notes varchar(1000),
+    diagnosis varchar(500),
+    prescription varchar(500),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    constraint pk_appointments primary key (id),
+    constraint fk_appointments_patient foreign key (patient_id) references patients (user_id),
+    constraint fk_appointments_doctor foreign key (doctor_id) references doctors (user_id)
+);
@@ -0,0 +1,21 @@
+-- Indexes for the repository finders. Foreign keys are not indexed automatically on PostgreSQL.
+
+-- findByDoctor*, overlap checks and per-doctor date ranges
+create index idx_appointments_doctor_time on appointments (doctor_id, appointment_date_time);
+
+-- findByPatient*, per-patient date ranges
+create index idx_appointments_patient_time on appointments (patient_id, appointment_date_time);
+
+-- findByStatus and the status keyset page, ordered by time
+create index idx_appointments_status_time on appointments (status, appointment_date_time, id);
+
+-- Date-range finders and the (appointment_date_time, id) keyset pages
+create index idx_appointments_time on appointments (appointment_date_time, id);
+
+-- Element collections loaded per user / doctor
+create index idx_user_roles_user on user_roles (user_id);
+create index idx_doctor_availability_doctor on doctor_availability (doctor_id);
+
+-- Doctor directory lookups
+create index idx_doctors_specialization on doctors (specialization);
+create index idx_doctors_department on doctors (department);
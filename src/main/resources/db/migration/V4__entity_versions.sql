@@ -0,0 +1,3 @@
+-- Optimistic-lock versions, also used to derive ETags for conditional GETs
+alter table users add column version bigint default 0 not null;
+alter table appointments add column version bigint default 0 not null;
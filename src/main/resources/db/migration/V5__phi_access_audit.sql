@@ -0,0 +1,17 @@
+-- Reads of patient data, written in batches by PhiAuditLog. No foreign keys: the trail
+-- has to outlive the users and patients it mentions.
+create table phi_access_audit (
+    id bigint generated by default as identity,
+    accessed_at timestamp(6) not null,
+    user_id bigint,
+    username varchar(50),
+    roles varchar(100),
+    action varchar(40) not null,
+    patient_id bigint not null,
+    detail varchar(200),
+    client_ip varchar(45),
+    constraint pk_phi_access_audit primary key (id)
+);
+
+create index idx_phi_access_audit_patient on phi_access_audit (patient_id, accessed_at);
+create index idx_phi_access_audit_user on phi_access_audit (user_id, accessed_at);
@@ -0,0 +1,26 @@
+-- Completed and cancelled appointments past app.archive.min-age-days, moved out of the hot
+-- table by AppointmentArchiver. Rows keep their id and version, so ETags and references
+-- stay valid; the table is only read by date range.
+create table appointments_archive (
+    id bigint not null,
+    patient_id bigint not null,
+    doctor_id bigint not null,
+    appointment_date_time timestamp(6) not null,
+    end_date_time timestamp(6),
+    status varchar(20),
+    reason varchar(500),
+    notes varchar(1000),
+    diagnosis varchar(500),
+    prescription varchar(500),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    version bigint default 0 not null,
+    archived_at timestamp(6) not null,
+    constraint pk_appointments_archive primary key (id),
+    constraint fk_appointments_archive_patient foreign key (patient_id) references patients (user_id),
+    constraint fk_appointments_archive_doctor foreign key (doctor_id) references doctors (user_id)
+);
+
+create index idx_appointments_archive_doctor_time on appointments_archive (doctor_id, appointment_date_time);
+create index idx_appointments_archive_patient_time on appointments_archive (patient_id, appointment_date_time);
+create index idx_appointments_archive_time on appointments_archive (appointment_date_time, id);
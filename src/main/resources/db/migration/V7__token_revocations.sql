@@ -0,0 +1,11 @@
+-- Token revocations by JwtAuthenticationCache, so they survive restarts and reach every instance.
+-- Append-only; rows older than the token lifetime are deleted. No foreign key: deleted users
+-- are revoked too.
+create table token_revocations (
+    id bigint generated by default as identity,
+    user_id bigint not null,
+    revoked_until bigint not null,
+    constraint pk_token_revocations primary key (id)
+);
+
+create index idx_token_revocations_until on token_revocations (revoked_until);
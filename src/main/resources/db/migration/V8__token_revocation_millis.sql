@@ -0,0 +1,3 @@
+-- Revocations are compared with the token's millisecond issue time (iat_ms), so a login in the
+-- same second as a revocation is no longer rejected. Existing rows were epoch seconds.
+update token_revocations set revoked_until = revoked_until * 1000;
@@ -5,6 +5,7 @@ let token = localStorage.getItem('token');
 let doctors = [];
 let appointments = [];
 let currentFilter = 'all';
+let appointmentEvents = null;
 
 // Modal functions
 function showLogin() {
@@ -167,7 +168,6 @@ async function handleBookAppointment(event) {
             showNotification('Appointment booked successfully!', 'success');
             closeModal('bookAppointmentModal');
             event.target.reset();
-            loadAppointments();
             loadDashboardData();
         } else {
             const error = await response.text();
@@ -222,12 +222,91 @@ async function loadAppointments() {
         if (response.ok) {
             appointments = await response.json();
             renderAppointments();
+            subscribeAppointmentEvents();
         }
     } catch (error) {
         console.error('Error loading appointments:', error);
     }
 }
 
+// Keeps the list current from the server's event feed, so changes made here or elsewhere show up
+// without reloading it. Uses fetch because EventSource cannot send the Authorization header.
+async function subscribeAppointmentEvents() {
+    if (!currentUser || appointmentEvents) return;
+    const controller = new AbortController();
+    appointmentEvents = controller;
+
+    try {
+        const response = await fetch(`${API_BASE_URL}/appointment/patient/${currentUser.id}/events`, {
+            headers: {
+                'Accept': 'text/event-stream',
+                'Authorization': `Bearer ${token}`
+            },
+            signal: controller.signal
+        });
+        if (!response.ok) {
+            throw new Error(`Event feed returned ${response.status}`);
+        }
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value;
+            let end;
+            while ((end = buffer.indexOf('\n\n')) >= 0) {
+                const data = buffer.slice(0, end).split('\n')
+                    .filter(line => line.startsWith('data:'))
+                    .map(line => line.slice(5))
+                    .join('\n');
+                buffer = buffer.slice(end + 2);
+                if (data) {
+                    applyAppointmentEvent(JSON.parse(data));
+                }
+            }
+        }
+    } catch (error) {
+        if (controller.signal.aborted) return;
+        console.error('Appointment event feed error:', error);
+    } finally {
+        if (appointmentEvents === controller) {
+            appointmentEvents = null;
+        }
+    }
+
+    // Events may have been missed while disconnected; reloading subscribes again
+    setTimeout(() => {
+        if (currentUser && !appointmentEvents) loadAppointments();
+    }, 5000);
+}
+
+async function applyAppointmentEvent(event) {
+    if (event.type === 'DELETED') {
+        appointments = appointments.filter(apt => apt.id !== event.appointmentId);
+        renderAppointments();
+        return;
+    }
+
+    const existing = appointments.find(apt => apt.id === event.appointmentId);
+    if (existing && existing.version === event.version) return;
+
+    try {
+        const response = await fetch(`${API_BASE_URL}/appointment/${event.appointmentId}`, {
+            headers: {
+                'Authorization': `Bearer ${token}`
+            }
+        });
+        if (response.ok) {
+            const appointment = await response.json();
+            appointments = appointments.filter(apt => apt.id !== appointment.id).concat(appointment);
+            renderAppointments();
+        }
+    } catch (error) {
+        console.error('Error loading appointment:', error);
+    }
+}
+
 function renderAppointments() {
     const container = document.getElementById('appointmentsList');
     const filteredAppointments = filterAppointments(appointments);
@@ -323,19 +402,27 @@ function setFilter(filter) {
 async function cancelAppointment(appointmentId) {
     if (!confirm('Are you sure you want to cancel this appointment?')) return;
 
+    const appointment = appointments.find(apt => apt.id === appointmentId);
+
     try {
+        // Only the status changes; the version makes the server refuse if someone else edited it meanwhile
         const response = await fetch(`${API_BASE_URL}/appointment/${appointmentId}`, {
-            method: 'PUT',
+            method: 'PATCH',
             headers: {
-                'Content-Type': 'application/json',
+                'Content-Type': 'application/merge-patch+json',
                 'Authorization': `Bearer ${token}`
             },
-            body: JSON.stringify({ status: 'CANCELLED' })
+            body: JSON.stringify({ status: 'CANCELLED', version: appointment ? appointment.version : null })
         });
 
+        if (response.status === 409 || response.status === 412) {
+            showNotification('This appointment was changed elsewhere, please review it and try again', 'error');
+            loadAppointments();
+            return;
+        }
+
         if (response.ok) {
             showNotification('Appointment cancelled successfully', 'success');
-            loadAppointments();
             loadDashboardData();
         } else {
             throw new Error('Failed to cancel appointment');
@@ -515,18 +602,23 @@ async function loadDashboardData() {
     if (!token) return;
 
     try {
-        // Load patients count
-        const patientsResponse = await fetch(`${API_BASE_URL}/patient`, {
-            headers: {
-                'Authorization': `Bearer ${token}`
+        if (currentUser && currentUser.roles && currentUser.roles.includes('ROLE_ADMIN')) {
+            // Counts come pre-aggregated from the server instead of downloading every list
+            const statsResponse = await fetch(`${API_BASE_URL}/admin/stats`, {
+                headers: {
+                    'Authorization': `Bearer ${token}`
+                }
+            });
+            if (statsResponse.ok) {
+                const stats = await statsResponse.json();
+                document.getElementById('patientCount').textContent = stats.totalPatients;
+                document.getElementById('doctorCount').textContent = stats.totalDoctors;
+                document.getElementById('appointmentCount').textContent = stats.totalAppointments;
             }
-        });
-        if (patientsResponse.ok) {
-            const patients = await patientsResponse.json();
-            document.getElementById('patientCount').textContent = patients.length;
+            return;
         }
 
-        // Load doctors count
+        // The stats are admin-only; other users see the doctor count from the cached directory
         const doctorsResponse = await fetch(`${API_BASE_URL}/doctor`, {
             headers: {
                 'Authorization': `Bearer ${token}`
@@ -537,23 +629,16 @@ async function loadDashboardData() {
             document.getElementById('doctorCount').textContent = doctors.length;
         }
 
-        // Load appointments count
-        const appointmentsResponse = await fetch(`${API_BASE_URL}/appointment`, {
-            headers: {
-                'Authorization': `Bearer ${token}`
-            }
-        });
-        if (appointmentsResponse.ok) {
-            const appointments = await appointmentsResponse.json();
-            document.getElementById('appointmentCount').textContent = appointments.length;
-        }
-
     } catch (error) {
         console.error('Error loading dashboard data:', error);
     }
 }
 
 function logout() {
+    if (appointmentEvents) {
+        appointmentEvents.abort();
+        appointmentEvents = null;
+    }
     localStorage.removeItem('token');
     localStorage.removeItem('user');
     token = null;
@@ -0,0 +1,129 @@
+package com.healthcare.controller;
+
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.service.AppointmentIntervalIndex;
+import com.healthcare.service.AppointmentService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentBookingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentIntervalIndex intervalIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Patient patient;
+    private Doctor doctor;
+
+    @BeforeAll
+    void seed() {
+        patient = patientRepository.save(new Patient("booking-patient", "password", "booking-patient@example.com", "Test", "Patient"));
+        doctor = doctorRepository.save(new Doctor("booking-doctor", "password", "booking-doctor@example.com", "Test", "Doctor", "General"));
+    }
+
+    // An inverted interval overlaps nothing, so it could double-book the doctor
+    @Test
+    void endBeforeStartIsRejected() throws Exception {
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                        .content(appointment("2042-03-04T10:00:00", "2042-03-04T09:00:00")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                        .content(appointment("2042-03-04T10:00:00", "2042-03-04T10:00:00")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void overlappingBookingIsRejected() throws Exception {
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                        .content(appointment("2042-03-05T10:00:00", "2042-03-05T11:00:00")))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/appointment").contentType(MediaType.APPLICATION_JSON)
+                        .content(appointment("2042-03-05T10:30:00", "2042-03-05T11:30:00")))
+                .andExpect(status().isConflict());
+    }
+
+    // The index follows commits, so a booking whose transaction rolls back never shows up in it
+    @Test
+    void rolledBackBookingStaysOutOfTheIndex() {
+        Appointment appointment = new TransactionTemplate(transactionManager).execute(status -> {
+            Appointment booked = new Appointment();
+            booked.setPatient(patient);
+            booked.setDoctor(doctor);
+            booked.setAppointmentDateTime(LocalDateTime.of(2042, 3, 6, 10, 0));
+            booked.setEndDateTime(LocalDateTime.of(2042, 3, 6, 11, 0));
+            booked.setStatus("SCHEDULED");
+            booked = appointmentService.bookAppointment(booked);
+            assertNull(intervalIndex.getSlot(booked.getId()));
+            status.setRollbackOnly();
+            return booked;
+        });
+        assertNull(intervalIndex.getSlot(appointment.getId()));
+
+        Appointment committed = new Appointment();
+        committed.setPatient(patient);
+        committed.setDoctor(doctor);
+        committed.setAppointmentDateTime(LocalDateTime.of(2042, 3, 6, 10, 0));
+        committed.setEndDateTime(LocalDateTime.of(2042, 3, 6, 11, 0));
+        committed.setStatus("SCHEDULED");
+        assertNotNull(intervalIndex.getSlot(appointmentService.bookAppointment(committed).getId()));
+    }
+
+    @Test
+    void visitLongerThanTheWorkingDayIsRejected() throws Exception {
+        mockMvc.perform(get("/api/appointment/free-slots").param("from", "2042-03-04").param("to", "2042-03-04")
+                        .param("durationMinutes", "500"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointment/free-slots").param("from", "2042-03-04").param("to", "2042-03-04")
+                        .param("durationMinutes", String.valueOf(Integer.MAX_VALUE)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/appointment/free-slots").param("from", "2042-03-04").param("to", "2042-03-04")
+                        .param("durationMinutes", "480"))
+                .andExpect(status().isOk());
+    }
+
+    private String appointment(String start, String end) {
+        return "{\"patient\":{\"id\":" + patient.getId() + "},\"doctor\":{\"id\":" + doctor.getId() + "},"
+                + "\"appointmentDateTime\":\"" + start + "\",\"endDateTime\":\"" + end + "\",\"status\":\"SCHEDULED\"}";
+    }
+}
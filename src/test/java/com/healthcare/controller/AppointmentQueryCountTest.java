@@ -0,0 +1,153 @@
+package com.healthcare.controller;
+
+import com.healthcare.entity.Appointment;
+import com.healthcare.entity.Doctor;
+import com.healthcare.entity.Patient;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The appointment list endpoints must run the same number of statements whatever the number of
+ * appointments they return. Each data set gives one patient N appointments with N different
+ * doctors and one doctor N appointments with N different patients, so a lazy association
+ * loaded per row shows up as a count that grows with N. The date-range request reads the
+ * patient's morning. Statements are counted per request by RequestMetricsFilter
+ * (app.request.statements); the test profile also fails any request over the SQL budget.
+ *
+ * Collections of the participants (roles, available days) are batch fetched, 100 owners per
+ * statement (hibernate.default_batch_fetch_size), so counts are constant up to that many
+ * distinct participants and grow by one statement per further 100.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AppointmentQueryCountTest {
+
+    private static final int SMALL = 1;
+    private static final int LARGE = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private DataSet small;
+    private DataSet large;
+
+    @BeforeAll
+    void seed() {
+        small = seed(SMALL, LocalDateTime.of(2040, 1, 1, 0, 0));
+        large = seed(LARGE, LocalDateTime.of(2041, 1, 1, 0, 0));
+    }
+
+    @Test
+    void patientAppointmentsRunConstantStatements() throws Exception {
+        assertConstantStatements("/api/appointment/patient/{patientId}",
+                set -> get("/api/appointment/patient/{patientId}", set.patient().getId()));
+    }
+
+    @Test
+    void doctorAppointmentsRunConstantStatements() throws Exception {
+        assertConstantStatements("/api/appointment/doctor/{doctorId}",
+                set -> get("/api/appointment/doctor/{doctorId}", set.doctor().getId()));
+    }
+
+    @Test
+    void dateRangeAppointmentsRunConstantStatements() throws Exception {
+        assertConstantStatements("/api/appointment/date-range",
+                set -> get("/api/appointment/date-range")
+                        .param("start", set.start().toString())
+                        .param("end", set.start().plusHours(12).toString()));
+    }
+
+    private void assertConstantStatements(String uri, Request request) throws Exception {
+        // Once each first, so lazily built state such as caches is not counted
+        perform(request.to(small), SMALL);
+        perform(request.to(large), LARGE);
+
+        double smallCount = statements(uri, request.to(small), SMALL);
+        double largeCount = statements(uri, request.to(large), LARGE);
+        assertThat(largeCount)
+                .as("statements for %d vs %d appointments", LARGE, SMALL)
+                .isEqualTo(smallCount);
+    }
+
+    private double statements(String uri, RequestBuilder request, int expected) throws Exception {
+        DistributionSummary summary = meterRegistry.find("app.request.statements").tag("uri", uri).summary();
+        double before = summary != null ? summary.totalAmount() : 0;
+        perform(request, expected);
+        return meterRegistry.get("app.request.statements").tag("uri", uri).summary().totalAmount() - before;
+    }
+
+    private void perform(RequestBuilder request, int expected) throws Exception {
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(expected));
+    }
+
+    // The patient's appointments on the start day, the doctor's on the next, 10 minutes apart
+    private DataSet seed(int size, LocalDateTime start) {
+        String prefix = "qc" + size + "-";
+        Patient patient = patientRepository.save(patient(prefix + "patient"));
+        Doctor doctor = doctorRepository.save(doctor(prefix + "doctor"));
+
+        List<Appointment> appointments = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Doctor otherDoctor = doctorRepository.save(doctor(prefix + "doctor" + i));
+            appointments.add(new Appointment(patient, otherDoctor, start.plusMinutes(10L * i), "SCHEDULED"));
+            Patient otherPatient = patientRepository.save(patient(prefix + "patient" + i));
+            appointments.add(new Appointment(otherPatient, doctor, start.plusDays(1).plusMinutes(10L * i), "SCHEDULED"));
+        }
+        appointmentRepository.saveAll(appointments);
+        return new DataSet(patient, doctor, start);
+    }
+
+    private static Patient patient(String username) {
+        return new Patient(username, "password", username + "@example.com", "Test", username);
+    }
+
+    private static Doctor doctor(String username) {
+        return new Doctor(username, "password", username + "@example.com", "Test", username, "General");
+    }
+
+    private record DataSet(Patient patient, Doctor doctor, LocalDateTime start) {}
+
+    @FunctionalInterface
+    private interface Request {
+        RequestBuilder to(DataSet set);
+    }
+}
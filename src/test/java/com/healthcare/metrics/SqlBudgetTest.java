@@ -0,0 +1,82 @@
+package com.healthcare.metrics;
+
+import com.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The test profile runs the SQL budget in FAIL mode: 50 statements, no shape repeated over 10 times
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SqlBudgetTest.ProbeController.class)
+@WithMockUser(roles = "ADMIN")
+class SqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void requestWithinBudgetSucceeds() throws Exception {
+        mockMvc.perform(get("/api/test/sql-budget/lookups").param("count", "10"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void repeatedStatementFailsRequest() {
+        SqlBudgetExceededException e = assertThrows(SqlBudgetExceededException.class,
+                () -> mockMvc.perform(get("/api/test/sql-budget/lookups").param("count", "11")));
+        assertThat(e.getMessage())
+                .contains("ProbeController.lookups")
+                .contains("most repeated 11x (budget 10)");
+    }
+
+    @Test
+    void endpointBudgetOverridesDefault() throws Exception {
+        mockMvc.perform(get("/api/test/sql-budget/capped-lookups").param("count", "20"))
+                .andExpect(status().isOk());
+        SqlBudgetExceededException e = assertThrows(SqlBudgetExceededException.class,
+                () -> mockMvc.perform(get("/api/test/sql-budget/capped-lookups").param("count", "21")));
+        assertThat(e.getMessage()).contains("21 statements (budget 20)");
+    }
+
+    @RestController
+    static class ProbeController {
+
+        @Autowired
+        private PatientRepository patientRepository;
+
+        // One lookup per id, the statement pattern of an N+1
+        @GetMapping("/api/test/sql-budget/lookups")
+        public int lookups(int count) {
+            return lookup(count);
+        }
+
+        // Repeats are fine here, only the statement count is limited
+        @GetMapping("/api/test/sql-budget/capped-lookups")
+        @SqlBudget(maxStatements = 20)
+        public int cappedLookups(int count) {
+            return lookup(count);
+        }
+
+        private int lookup(int count) {
+            int found = 0;
+            for (long id = 1; id <= count; id++) {
+                found += patientRepository.findById(-id).isPresent() ? 1 : 0;
+            }
+            return found;
+        }
+    }
+}
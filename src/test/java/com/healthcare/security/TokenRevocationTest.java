@@ -0,0 +1,48 @@
+package com.healthcare.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Revocations are ordered against the token's millisecond issue time, not its iat second
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationTest {
+
+    private static final long USER_ID = 900_001L;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Test
+    void tokenIssuedBeforeRevocationIsRejected() throws Exception {
+        String token = token();
+        Thread.sleep(2);
+        authenticationCache.invalidateUser(USER_ID);
+
+        assertThat(authenticationCache.isRevoked(USER_ID, jwtUtil.issuedAtMillis(jwtUtil.parseClaims(token)))).isTrue();
+    }
+
+    @Test
+    void tokenIssuedRightAfterRevocationIsAccepted() throws Exception {
+        authenticationCache.invalidateUser(USER_ID + 1);
+        Thread.sleep(2);
+        // Usually within the same second as the revocation
+        String token = token();
+
+        assertThat(authenticationCache.isRevoked(USER_ID + 1, jwtUtil.issuedAtMillis(jwtUtil.parseClaims(token)))).isFalse();
+    }
+
+    private String token() {
+        UserDetails user = User.withUsername("revocation-test").password("unused").roles("PATIENT").build();
+        return jwtUtil.generateToken(user, USER_ID);
+    }
+}
@@ -0,0 +1,129 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentChange;
+import com.healthcare.dto.AppointmentEvent;
+import com.healthcare.dto.ChangeLogPage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Without Spring: segments of 1 MB hold about 12 000 records, so a few tens of thousands roll them
+class AppointmentChangeLogTest {
+
+    private static final int CHANGES = 30_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAcrossSegmentsFromAnyOffset() throws Exception {
+        AppointmentChangeLog log = open();
+        appendAll(log, 0, CHANGES);
+        List<Long> bases = segmentBases();
+        assertTrue(bases.size() >= 3, "expected the log to roll, got segments " + bases);
+
+        // Mid-segment, past the first sparse index entry of the segment
+        long from = bases.get(1) + 1500;
+        assertOffsets(log.read(from, 100), from, 100);
+        // Across a roll
+        from = bases.get(1) - 50;
+        assertOffsets(log.read(from, 100), from, 100);
+        // Up to the end
+        ChangeLogPage tail = log.read(CHANGES - 10, 100);
+        assertOffsets(tail, CHANGES - 10, 10);
+        assertEquals(CHANGES, tail.getNextOffset());
+        assertEquals(CHANGES, tail.getEndOffset());
+        log.shutdown();
+    }
+
+    @Test
+    void tornRecordIsDroppedOnRecovery() throws Exception {
+        AppointmentChangeLog log = open();
+        appendAll(log, 0, CHANGES);
+        log.shutdown();
+
+        // Damage the body of the last record of the last segment, as a write cut short would
+        long lastBase = segmentBases().get(segmentBases().size() - 1);
+        Path lastSegment = directory.resolve(String.format("%020d.log", lastBase));
+        int recordSize = 8 + 67 + "SCHEDULED".length();
+        long lastRecord = (CHANGES - 1 - lastBase) * recordSize;
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), lastRecord + 8 + 20);
+        }
+
+        AppointmentChangeLog reopened = open();
+        ChangeLogPage page = reopened.read(CHANGES - 3, 100);
+        assertOffsets(page, CHANGES - 3, 2);
+        assertEquals(CHANGES - 1, page.getEndOffset());
+
+        // The next change takes the torn record's offset and reads back intact
+        appendAll(reopened, CHANGES - 1, 1);
+        page = reopened.read(CHANGES - 1, 100);
+        assertOffsets(page, CHANGES - 1, 1);
+        assertEquals(CHANGES - 1 + 1_000_000L, page.getChanges().get(0).getAppointmentId());
+        reopened.shutdown();
+    }
+
+    private AppointmentChangeLog open() throws IOException {
+        AppointmentChangeLog log = new AppointmentChangeLog();
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "directory", directory.toString());
+        ReflectionTestUtils.setField(log, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(log, "maxSegments", 0);
+        ReflectionTestUtils.setField(log, "queueCapacity", 65536);
+        log.init();
+        return log;
+    }
+
+    // Appointment ids are offset + 1 000 000, so a record read back can be matched to its offset
+    private static void appendAll(AppointmentChangeLog log, long firstOffset, int count) throws InterruptedException {
+        for (long offset = firstOffset; offset < firstOffset + count; offset++) {
+            AppointmentEvent event = new AppointmentEvent();
+            event.setType(AppointmentEvent.Type.CREATED);
+            event.setAppointmentId(offset + 1_000_000L);
+            event.setPatientId(6L);
+            event.setDoctorId(4L);
+            event.setAppointmentDateTime(LocalDateTime.of(2042, 1, 1, 9, 0).plusMinutes(offset));
+            event.setStatus("SCHEDULED");
+            log.onAppointmentChanged(event);
+        }
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (log.read(0, 0).getEndOffset() < firstOffset + count) {
+            assertTrue(System.currentTimeMillis() < deadline, "change log writer fell behind");
+            Thread.sleep(10);
+        }
+    }
+
+    private List<Long> segmentBases() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".log"))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static void assertOffsets(ChangeLogPage page, long from, int count) {
+        List<AppointmentChange> changes = page.getChanges();
+        assertEquals(count, changes.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(from + i, changes.get(i).getOffset());
+            assertEquals(from + i + 1_000_000L, changes.get(i).getAppointmentId());
+        }
+        assertEquals(from + count, page.getNextOffset());
+    }
+}